@@ -1,5 +1,6 @@
 package mfy.server.domain.message.controller;
 
+import java.time.Instant;
 import java.util.List;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
@@ -13,16 +14,23 @@ import io.swagger.v3.oas.annotations.Operation;
 import org.springframework.web.bind.annotation.RequestBody;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import mfy.server.domain.message.dto.MessageRequestDto.DownloadAttachmentDto;
+import mfy.server.domain.message.dto.MessageRequestDto.GetMessagesRequestDto;
+import mfy.server.domain.message.dto.MessageRequestDto.ReadMessagesRequestDto;
+import mfy.server.domain.message.dto.MessageRequestDto.ResumeRequestDto;
+import mfy.server.domain.message.dto.MessageRequestDto.SearchMessagesRequestDto;
 import mfy.server.domain.message.dto.MessageRequestDto.SendMessageRequestDto;
 import mfy.server.domain.message.dto.MessageRequestDto.UpdateAttachmentsDto;
-import mfy.server.domain.message.dto.MessageResponseDto.GetMessageResponseDto;
+import mfy.server.domain.message.dto.MessageResponseDto.GetUnreadResponseDto;
+import mfy.server.domain.message.dto.MessageResponseDto.GetMessageWindowResponseDto;
 import mfy.server.domain.message.dto.MessageResponseDto.GlobalMessageDto;
+import mfy.server.domain.message.dto.MessageResponseDto.PresenceDto;
 import mfy.server.domain.message.dto.MessageResponseDto.PrivateMessageDto;
 import mfy.server.domain.message.dto.MessageResponseDto.ProjectMessageDto;
+import mfy.server.domain.message.dto.MessageResponseDto.ResumeResponseDto;
+import mfy.server.domain.message.dto.MessageResponseDto.SearchMessagesResponseDto;
 import mfy.server.domain.message.dto.MessageResponseDto.SystemMessageDto;
 import mfy.server.domain.message.entity.PrivateMessage;
 import mfy.server.domain.message.entity.ProjectMessage;
@@ -30,7 +38,7 @@ import mfy.server.domain.message.entity.GlobalMessage;
 import mfy.server.domain.message.entity.SystemMessage;
 import mfy.server.domain.message.entity.type.MessageType;
 import mfy.server.domain.message.service.MessageService;
-import mfy.server.domain.message.service.type.OnlineUser;
+import mfy.server.domain.message.service.type.ScrollDirection;
 import mfy.server.global.dto.BaseResponse;
 import mfy.server.global.security.UserDetailsImpl;
 
@@ -46,9 +54,8 @@ public class MessageController {
 
     @Operation(summary = "Get Online Users")
     @GetMapping("/online")
-    BaseResponse<List<OnlineUser>> getOnlineUsers() {
-        var onlineUsers = messageService.getOnlineUsers();
-        return BaseResponse.success("Online users", onlineUsers);
+    BaseResponse<PresenceDto> getOnlineUsers(@RequestParam(required = false) Long since) {
+        return BaseResponse.success("Online users", messageService.getPresence(since));
     }
 
     @Operation(summary = "Get Today System Messages")
@@ -59,45 +66,88 @@ public class MessageController {
 
     @Operation(summary = "Get System Messages")
     @GetMapping("/system")
-    BaseResponse<GetMessageResponseDto<SystemMessageDto>> getSystemMessage(
-            @RequestParam(defaultValue = "1") @Min(1) int page) {
-        return BaseResponse.success("System messages", messageService.getSystemMessages(page));
+    BaseResponse<GetMessageWindowResponseDto<SystemMessageDto>> getSystemMessage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "BEFORE") ScrollDirection direction,
+            @RequestParam(required = false) Instant at) {
+        var requestDto = new GetMessagesRequestDto(cursor, direction, at);
+        return BaseResponse.success("System messages", messageService.getSystemMessages(requestDto));
     }
 
     @Operation(summary = "Get Global Messages")
     @GetMapping("/global")
-    BaseResponse<GetMessageResponseDto<GlobalMessageDto>> getGlobalMessage(
-            @RequestParam(defaultValue = "1") @Min(1) int page) {
-        return BaseResponse.success("Global message", messageService.getGlobalMessages(page));
+    BaseResponse<GetMessageWindowResponseDto<GlobalMessageDto>> getGlobalMessage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "BEFORE") ScrollDirection direction,
+            @RequestParam(required = false) Instant at) {
+        var requestDto = new GetMessagesRequestDto(cursor, direction, at);
+        return BaseResponse.success("Global message", messageService.getGlobalMessages(requestDto));
     }
 
     @Operation(summary = "Get Private Messages")
     @GetMapping("/private")
-    public BaseResponse<GetMessageResponseDto<PrivateMessageDto>> getPrivateMessage(
+    public BaseResponse<GetMessageWindowResponseDto<PrivateMessageDto>> getPrivateMessage(
             @AuthenticationPrincipal UserDetailsImpl userDetails,
             @RequestParam Long recipientId,
-            @RequestParam(defaultValue = "1") @Min(1) int page) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "BEFORE") ScrollDirection direction,
+            @RequestParam(required = false) Instant at) {
         Long pairId = PrivateMessage.calcPairId(recipientId, userDetails.getUser().getId());
-        return BaseResponse.success("Private messages", messageService.getPrivateMessages(pairId, page));
+        var requestDto = new GetMessagesRequestDto(cursor, direction, at);
+        return BaseResponse.success("Private messages", messageService.getPrivateMessages(pairId, requestDto));
     }
 
     @Operation(summary = "Get Project Messages")
     @GetMapping("/project")
-    BaseResponse<GetMessageResponseDto<ProjectMessageDto>> getProjectMessage(
+    BaseResponse<GetMessageWindowResponseDto<ProjectMessageDto>> getProjectMessage(
             @AuthenticationPrincipal UserDetailsImpl userDetails,
             @RequestParam Long projectId,
-            @RequestParam(defaultValue = "1") @Min(1) int page) {
-        return BaseResponse.success("Project messages", messageService.getProjectMessages(projectId, page));
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "BEFORE") ScrollDirection direction,
+            @RequestParam(required = false) Instant at) {
+        var requestDto = new GetMessagesRequestDto(cursor, direction, at);
+        return BaseResponse.success("Project messages", messageService.getProjectMessages(projectId, requestDto));
+    }
+
+    @Operation(summary = "Search Messages")
+    @GetMapping("/search")
+    BaseResponse<SearchMessagesResponseDto> searchMessages(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestParam MessageType messageType,
+            @RequestParam(required = false) Long channelId,
+            @RequestParam String keywords,
+            @RequestParam(required = false) String cursor) {
+        var requestDto = new SearchMessagesRequestDto(messageType, channelId, keywords, cursor);
+        var responseDto = messageService.searchMessages(userDetails.getUser(), requestDto);
+        return BaseResponse.success("Search messages", responseDto);
     }
 
     @Operation(summary = "Get Unread Messages")
     @GetMapping("/unread")
-    BaseResponse<GetMessageResponseDto<Object>> getUnreadMessage(
+    BaseResponse<GetUnreadResponseDto> getUnreadMessage(
             @AuthenticationPrincipal UserDetailsImpl userDetails) {
         var responseDto = messageService.getUnreadMessages(userDetails.getUser());
         return BaseResponse.success("Unread message", responseDto);
     }
 
+    @Operation(summary = "Resume Channels After Reconnect")
+    @PostMapping("/resume")
+    BaseResponse<ResumeResponseDto> resume(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestBody @Valid ResumeRequestDto requestDto) {
+        var responseDto = messageService.resume(userDetails.getUser(), requestDto);
+        return BaseResponse.success("Missed messages", responseDto);
+    }
+
+    @Operation(summary = "Mark Channel As Read")
+    @PutMapping("/read")
+    BaseResponse<Object> markRead(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestBody @Valid ReadMessagesRequestDto requestDto) {
+        messageService.markRead(userDetails.getUser(), requestDto);
+        return BaseResponse.success("Marked as read");
+    }
+
     @Operation(summary = "Send System Message")
     @PostMapping(path = "/system")
     public BaseResponse<SystemMessage> sendSystemMessage(
@@ -0,0 +1,167 @@
+package mfy.server.domain.message.controller;
+
+import java.security.Principal;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mfy.server.domain.message.dto.MessageRequestDto.SocketMessageRequestDto;
+import mfy.server.domain.message.dto.MessageRequestDto.TypingRequestDto;
+import mfy.server.domain.message.dto.MessageResponseDto.MessageAckDto;
+import mfy.server.domain.message.dto.MessageResponseDto.MessageNackDto;
+import mfy.server.domain.message.entity.type.MessageType;
+import mfy.server.domain.message.service.MessageService;
+import mfy.server.domain.message.service.MessageSnapshots;
+import mfy.server.domain.message.service.TypingEvents;
+import mfy.server.domain.user.entity.User;
+import mfy.server.global.config.WebSocketConfig;
+import mfy.server.global.dto.BaseResponse;
+import mfy.server.global.exception.BusinessException;
+import mfy.server.global.exception.ErrorConfig.ErrorMessage;
+import mfy.server.global.security.UserDetailsImpl;
+import mfy.server.global.websocket.exception.CustomMessageExceptionHandler;
+
+/**
+ * Chat sends over an authenticated STOMP session, to /app/message/{type}.
+ * They go through the same MessageService logic as the REST endpoints and
+ * are acknowledged to the sending session only, failed sends are answered
+ * there too with a nack carrying the same clientId. Subscribing to
+ * /app/snapshot/{name} replies once with the current state, so a client can
+ * fill its UI and then follow the matching topic without REST calls.
+ * Typing indicators sent to /app/typing/{type} are relayed to
+ * /topic/project/{id}/typing and /user/queue/typing.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Controller
+public class MessageSocketController {
+
+    private static final String ACK_DESTINATION = "/queue/ack";
+    private static final String SEND_PREFIX = WebSocketConfig.APPLICATION_PREFIX + "/message/";
+
+    private final MessageService messageService;
+    private final MessageSnapshots messageSnapshots;
+    private final TypingEvents typingEvents;
+    private final CustomMessageExceptionHandler exceptionHandler;
+    private final ObjectMapper objectMapper;
+
+    @SubscribeMapping("/snapshot/system")
+    public RawValue getSystemSnapshot() {
+        return messageSnapshots.system();
+    }
+
+    // Newest page of global chat, the same window as GET /api/v1/message/global
+    @SubscribeMapping("/snapshot/global")
+    public RawValue getGlobalSnapshot() {
+        return messageSnapshots.global();
+    }
+
+    // Online users and the presence version, deltas at or below it are already applied
+    @SubscribeMapping("/snapshot/presence")
+    public RawValue getPresenceSnapshot() {
+        return messageSnapshots.presence();
+    }
+
+    @MessageMapping("/message/global")
+    @SendToUser(destinations = ACK_DESTINATION, broadcast = false)
+    public MessageAckDto sendGlobalMessage(Principal principal, @Payload @Valid SocketMessageRequestDto requestDto) {
+        var message = messageService.sendGlobalMessage(getUser(principal), requestDto);
+        return MessageAckDto.fromEntity(requestDto.getClientId(), MessageType.GLOBAL, message);
+    }
+
+    @MessageMapping("/message/project")
+    @SendToUser(destinations = ACK_DESTINATION, broadcast = false)
+    public MessageAckDto sendProjectMessage(Principal principal, @Payload @Valid SocketMessageRequestDto requestDto) {
+        if (requestDto.getProjectId() == null) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, ErrorMessage.INVALID_PAYLOAD);
+        }
+        var message = messageService.sendProjectMessage(requestDto.getProjectId(), getUser(principal), requestDto);
+        return MessageAckDto.fromEntity(requestDto.getClientId(), MessageType.PROJECT, message);
+    }
+
+    @MessageMapping("/message/private")
+    @SendToUser(destinations = ACK_DESTINATION, broadcast = false)
+    public MessageAckDto sendPrivateMessage(Principal principal, @Payload @Valid SocketMessageRequestDto requestDto) {
+        if (requestDto.getRecipientId() == null) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, ErrorMessage.INVALID_PAYLOAD);
+        }
+        var message = messageService.sendPrivateMessage(getUser(principal), requestDto.getRecipientId(), requestDto);
+        return MessageAckDto.fromEntity(requestDto.getClientId(), MessageType.PRIVATE, message);
+    }
+
+    // Typing indicators are coalesced by TypingEvents and never stored, there is no ack
+    @MessageMapping("/typing/project")
+    public void typeInProject(Principal principal, @Payload TypingRequestDto requestDto) {
+        if (requestDto.getProjectId() == null) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, ErrorMessage.INVALID_PAYLOAD);
+        }
+        typingEvents.typeInProject(getUser(principal), requestDto.getProjectId(), isTyping(requestDto));
+    }
+
+    @MessageMapping("/typing/private")
+    public void typeToUser(Principal principal, @Payload TypingRequestDto requestDto) {
+        if (requestDto.getRecipientId() == null) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, ErrorMessage.INVALID_PAYLOAD);
+        }
+        typingEvents.typeToUser(getUser(principal), requestDto.getRecipientId(), isTyping(requestDto));
+    }
+
+    /**
+     * Failures of this controller. A failed send is nacked to the sending
+     * session with its clientId, so the client settles exactly that pending
+     * send. Typing and snapshot failures go to /queue/error as before.
+     */
+    @MessageExceptionHandler
+    @SendToUser(destinations = ACK_DESTINATION, broadcast = false)
+    public MessageNackDto handleException(Exception e, Message<?> message, Principal principal) {
+        BaseResponse<?> error = CustomMessageExceptionHandler.toErrorResponse(e);
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null || !destination.startsWith(SEND_PREFIX)) {
+            log.error("Socket request to {} failed: {}", destination, e.getMessage());
+            exceptionHandler.sendError(principal, error);
+            return null;
+        }
+        log.error("Send to {} failed: {}", destination, e.getMessage());
+        MessageType type = MessageType.valueOf(destination.substring(SEND_PREFIX.length()).toUpperCase());
+        return new MessageNackDto(getClientId(message), type, error.getCode(), error.getMessage(), error.getData());
+    }
+
+    // Read from the raw payload, the failure may have been the payload conversion itself
+    private String getClientId(Message<?> message) {
+        if (!(message.getPayload() instanceof byte[] body)) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(body).path("clientId").asText(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private boolean isTyping(TypingRequestDto requestDto) {
+        return !Boolean.FALSE.equals(requestDto.getIsTyping());
+    }
+
+    // The user authenticated on CONNECT, no token check or user lookup per message
+    private User getUser(Principal principal) {
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof UserDetailsImpl userDetails) {
+            return userDetails.getUser();
+        }
+        throw new BusinessException(HttpStatus.UNAUTHORIZED, ErrorMessage.USER_NOT_LOGGED_IN);
+    }
+}
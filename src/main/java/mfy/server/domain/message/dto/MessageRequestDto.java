@@ -14,6 +14,7 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import mfy.server.domain.message.entity.type.MessageType;
+import mfy.server.domain.message.service.type.ScrollDirection;
 
 public class MessageRequestDto {
 
@@ -40,6 +41,77 @@ public class MessageRequestDto {
 
     }
 
+    @Getter
+    @Validated
+    public static class SocketMessageRequestDto extends SendMessageRequestDto {
+
+        @Schema(description = "Client generated id, echoed back in the ack")
+        private String clientId;
+
+        @Schema(description = "Target project, for project chat")
+        private Long projectId;
+
+        @Schema(description = "Target user, for private chat")
+        private Long recipientId;
+    }
+
+    @Getter
+    public static class TypingRequestDto {
+
+        @Schema(description = "Target project, for project chat")
+        private Long projectId;
+
+        @Schema(description = "Target user, for private chat")
+        private Long recipientId;
+
+        @Schema(description = "False when the user stopped typing")
+        private Boolean isTyping = true;
+    }
+
+    @AllArgsConstructor
+    @Getter
+    public static class GetMessagesRequestDto {
+        private String cursor;
+
+        private ScrollDirection direction;
+
+        private Instant at;
+    }
+
+    @Getter
+    public static class ResumeRequestDto {
+        @NotEmpty
+        List<@Valid ResumeChannelDto> channels;
+    }
+
+    @Getter
+    public static class ResumeChannelDto {
+        @NotNull
+        MessageType messageType;
+
+        @Schema(description = "Project id for project chat, the other user's id for private chat")
+        Long channelId;
+
+        @Schema(description = "Last sequence number the client has seen in this channel")
+        @NotNull
+        Long seq;
+    }
+
+    @AllArgsConstructor
+    @Getter
+    public static class SearchMessagesRequestDto {
+        @NotNull
+        private MessageType messageType;
+
+        // Project id for project chat, the other user's id for private chat
+        private Long channelId;
+
+        @NotBlank
+        private String keywords;
+
+        private String cursor;
+    }
+
     @AllArgsConstructor
     @Getter
     public static class DownloadAttachmentDto {
@@ -53,6 +125,15 @@ public class MessageRequestDto {
         Long attachmentId;
     }
 
+    @Getter
+    public static class ReadMessagesRequestDto {
+        @NotNull
+        MessageType messageType;
+
+        @Schema(description = "Project id for project chat, the other user's id for private chat")
+        Long channelId;
+    }
+
     @Getter
     @Validated
     public static class UpdateAttachmentsDto {
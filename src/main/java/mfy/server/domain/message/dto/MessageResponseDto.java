@@ -6,38 +6,78 @@ import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import mfy.server.domain.message.entity.GlobalMessage;
+import mfy.server.domain.message.entity.PrivateMessage;
+import mfy.server.domain.message.entity.ProjectMessage;
+import mfy.server.domain.message.entity.SystemMessage;
+import mfy.server.domain.message.entity.UnreadCounter;
 import mfy.server.domain.message.entity.type.Attachment;
-import mfy.server.domain.project.dto.ProjectResponseDto.IProjectBasicDto;
-import mfy.server.domain.user.dto.UserResponseDto.IUserBasicDto;
+import mfy.server.domain.message.entity.type.MessageBase;
+import mfy.server.domain.message.entity.type.MessageType;
+import mfy.server.domain.message.service.type.OnlineUser;
+import mfy.server.domain.project.dto.ProjectResponseDto.ProjectBasicDto;
+import mfy.server.domain.user.dto.UserResponseDto.UserBasicDto;
 
 public class MessageResponseDto {
 
     @Getter
     @NoArgsConstructor
     public static class MessageResponse {
-        private List<IUserBasicDto> users;
-        private List<IProjectBasicDto> projects;
+        private List<UserBasicDto> users;
+        private List<ProjectBasicDto> projects;
 
-        public void setUsers(List<IUserBasicDto> users) {
+        public void setUsers(List<UserBasicDto> users) {
             this.users = users;
         }
 
-        public void setProjects(List<IProjectBasicDto> projects) {
+        public void setProjects(List<ProjectBasicDto> projects) {
             this.projects = projects;
         }
     }
 
     @Getter
-    public static class GetMessageResponseDto<T> extends MessageResponse {
-        private int page;
+    public static class GetMessageWindowResponseDto<T> extends MessageResponse {
         private List<T> messages;
-        private int totalPage;
+        private String prevCursor;
+        private String nextCursor;
 
-        public GetMessageResponseDto(int page, List<T> messages, int totalPage) {
+        public GetMessageWindowResponseDto(List<T> messages, String prevCursor, String nextCursor) {
             super();
-            this.page = page;
             this.messages = messages;
-            this.totalPage = totalPage;
+            this.prevCursor = prevCursor;
+            this.nextCursor = nextCursor;
+        }
+    }
+
+    @Getter
+    public static class GetUnreadResponseDto extends MessageResponse {
+        private List<UnreadChannelDto> channels;
+
+        public GetUnreadResponseDto(List<UnreadChannelDto> channels) {
+            super();
+            this.channels = channels;
+        }
+    }
+
+    @Getter
+    public static class ResumeResponseDto extends MessageResponse {
+        private List<ResumedChannelDto> channels;
+
+        public ResumeResponseDto(List<ResumedChannelDto> channels) {
+            super();
+            this.channels = channels;
+        }
+    }
+
+    @Getter
+    public static class SearchMessagesResponseDto extends MessageResponse {
+        private List<MessageHitDto> messages;
+        private String nextCursor;
+
+        public SearchMessagesResponseDto(List<MessageHitDto> messages, String nextCursor) {
+            super();
+            this.messages = messages;
+            this.nextCursor = nextCursor;
         }
     }
 
@@ -86,6 +126,14 @@ public class MessageResponseDto {
             List<Attachment> attachments) {
     }
 
+    public static interface IMessageKey {
+        Long id();
+
+        Instant createdAt();
+
+        Long seq();
+    }
+
     public static record SystemMessageDto(
             Long id,
             String content,
@@ -93,7 +141,20 @@ public class MessageResponseDto {
             Instant updatedAt,
             Boolean isDeleted,
             Boolean isLasting,
-            List<Attachment> attachments) {
+            List<Attachment> attachments,
+            Long seq) implements IMessageKey {
+
+        public static SystemMessageDto fromEntity(SystemMessage message) {
+            return new SystemMessageDto(
+                    message.getId(),
+                    message.getContent(),
+                    message.getCreatedAt(),
+                    message.getUpdatedAt(),
+                    message.getIsDeleted(),
+                    message.isLasting(),
+                    message.getAttachments(),
+                    message.getSeq());
+        }
     }
 
     // Global Message
@@ -104,7 +165,20 @@ public class MessageResponseDto {
             Instant updatedAt,
             Boolean isDeleted,
             List<Attachment> attachments,
-            Long senderId) {
+            Long senderId,
+            Long seq) implements IMessageKey {
+
+        public static GlobalMessageDto fromEntity(GlobalMessage message) {
+            return new GlobalMessageDto(
+                    message.getId(),
+                    message.getContent(),
+                    message.getCreatedAt(),
+                    message.getUpdatedAt(),
+                    message.getIsDeleted(),
+                    message.getAttachments(),
+                    message.getSenderId(),
+                    message.getSeq());
+        }
     }
 
     // Project Message
@@ -116,7 +190,21 @@ public class MessageResponseDto {
             Boolean isDeleted,
             List<Attachment> attachments,
             Long senderId,
-            Long projectId) {
+            Long projectId,
+            Long seq) implements IMessageKey {
+
+        public static ProjectMessageDto fromEntity(ProjectMessage message) {
+            return new ProjectMessageDto(
+                    message.getId(),
+                    message.getContent(),
+                    message.getCreatedAt(),
+                    message.getUpdatedAt(),
+                    message.getIsDeleted(),
+                    message.getAttachments(),
+                    message.getSenderId(),
+                    message.getProjectId(),
+                    message.getSeq());
+        }
     }
 
     // Private Message
@@ -129,7 +217,129 @@ public class MessageResponseDto {
             List<Attachment> attachments,
             Long pairId,
             Long senderId,
-            Long recipientId) {
+            Long recipientId,
+            Long seq) implements IMessageKey {
+
+        public static PrivateMessageDto fromEntity(PrivateMessage message) {
+            return new PrivateMessageDto(
+                    message.getId(),
+                    message.getContent(),
+                    message.getCreatedAt(),
+                    message.getUpdatedAt(),
+                    message.getIsDeleted(),
+                    message.getAttachments(),
+                    message.getPairId(),
+                    message.getSenderId(),
+                    message.getRecipientId(),
+                    message.getSeq());
+        }
+    }
+
+    // Unread channel
+    public static record UnreadChannelDto(
+            MessageType type,
+            Long channelId,
+            Long count,
+            Long lastMessageId,
+            Long lastSenderId,
+            Instant lastMessageAt,
+            List<?> messages) {
+
+        public static UnreadChannelDto fromEntity(UnreadCounter counter, Long channelId, long count) {
+            return new UnreadChannelDto(
+                    counter.getType(),
+                    channelId,
+                    count,
+                    counter.getLastMessageId(),
+                    counter.getLastSenderId(),
+                    counter.getLastMessageAt(),
+                    List.of());
+        }
+
+        // Global and system chat, the last message comes from the preview
+        public static UnreadChannelDto ofSharedChannel(MessageType type, long count) {
+            return new UnreadChannelDto(type, UnreadCounter.CHANNEL_HEAD, count, null, null, null, List.of());
+        }
+
+        public UnreadChannelDto withMessages(List<?> messages) {
+            if (lastMessageId != null || messages.isEmpty()
+                    || !(messages.get(messages.size() - 1) instanceof IMessageKey last)) {
+                return new UnreadChannelDto(type, channelId, count, lastMessageId, lastSenderId, lastMessageAt,
+                        messages);
+            }
+            Long senderId = last instanceof GlobalMessageDto global ? global.senderId() : null;
+            return new UnreadChannelDto(type, channelId, count, last.id(), senderId, last.createdAt(), messages);
+        }
+    }
+
+    // Search hit, highlight wraps matched terms in <mark>
+    public static record MessageHitDto(
+            MessageType type,
+            Long id,
+            String content,
+            String highlight,
+            Instant createdAt,
+            Long senderId,
+            Long recipientId,
+            Long projectId,
+            Float rank) {
+    }
+
+    // Missed messages of one channel in sequence order, hasMore means the client should page the history instead
+    public static record ResumedChannelDto(
+            MessageType type,
+            Long channelId,
+            Boolean hasMore,
+            List<?> messages) {
+    }
+
+    // One presence change, user is set when joining and null when leaving
+    public static record PresenceDeltaDto(
+            Long version,
+            Long userId,
+            Boolean isOnline,
+            Instant lastOnline,
+            OnlineUser user) {
+    }
+
+    // Deltas after the requested version, or a snapshot of online users when they are no longer kept
+    public static record PresenceDto(
+            Long version,
+            Boolean isSnapshot,
+            Integer onlineCount,
+            List<OnlineUser> users,
+            List<PresenceDeltaDto> deltas) {
+    }
+
+    // Typing indicator, channelId is the project id or the private pair id; clients hide it at expiresAt
+    public static record TypingDto(
+            MessageType type,
+            Long channelId,
+            Long userId,
+            Boolean isTyping,
+            Instant expiresAt) {
+    }
+
+    // Reply to a message sent over STOMP, on /user/queue/ack of the sending session
+    public static record MessageAckDto(
+            String clientId,
+            MessageType type,
+            Long id,
+            Long seq,
+            Instant createdAt) {
+
+        public static MessageAckDto fromEntity(String clientId, MessageType type, MessageBase message) {
+            return new MessageAckDto(clientId, type, message.getId(), message.getSeq(), message.getCreatedAt());
+        }
+    }
+
+    // Reply to a failed send, on /user/queue/ack of the sending session with the same clientId
+    public static record MessageNackDto(
+            String clientId,
+            MessageType type,
+            int code,
+            String message,
+            Object data) {
     }
 
 }
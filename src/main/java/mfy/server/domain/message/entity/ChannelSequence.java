@@ -0,0 +1,43 @@
+package mfy.server.domain.message.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import mfy.server.domain.message.entity.type.MessageType;
+
+/**
+ * Last sequence number handed out in one channel. Global and system chat use
+ * channelId 0, project chat the project id and private chat the pair id.
+ */
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "channelsequences", uniqueConstraints = {
+        @UniqueConstraint(columnNames = { "type", "channel_id" })
+})
+public class ChannelSequence {
+    public static final long SHARED_CHANNEL = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(nullable = false)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MessageType type;
+
+    @Column(name = "channel_id", nullable = false)
+    private Long channelId;
+
+    @Column(nullable = false)
+    private Long seq;
+}
@@ -22,7 +22,8 @@ import mfy.server.global.serializer.UserSerializer;
 @NoArgsConstructor
 @Entity
 @Table(name = "globalmessages", indexes = {
-        @Index(name = "globalmessage_createdAt_idx", columnList = "createdAt"),
+        @Index(name = "globalmessage_createdAt_id_idx", columnList = "createdAt, id"),
+        @Index(name = "globalmessage_seq_idx", columnList = "seq"),
 })
 public class GlobalMessage extends MessageBase {
 
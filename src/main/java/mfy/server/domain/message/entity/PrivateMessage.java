@@ -22,7 +22,8 @@ import mfy.server.global.serializer.UserSerializer;
 @Entity
 @Table(name = "privatemessages", indexes = {
         @Index(name = "privatemessage_createdAt_idx", columnList = "createdAt"),
-        @Index(name = "privatemessage_pairId_idx", columnList = "pairId"),
+        @Index(name = "privatemessage_pairId_createdAt_id_idx", columnList = "pairId, createdAt, id"),
+        @Index(name = "privatemessage_pairId_seq_idx", columnList = "pairId, seq"),
 })
 public class PrivateMessage extends MessageBase {
 
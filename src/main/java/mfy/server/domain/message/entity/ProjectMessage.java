@@ -31,7 +31,8 @@ import mfy.server.global.serializer.UserSerializer;
 @Entity
 @Table(name = "projectmessages", indexes = {
         @Index(name = "projectmessage_createdAt_idx", columnList = "createdAt"),
-        @Index(name = "projectmessage_projectId_idx", columnList = "projectId"),
+        @Index(name = "projectmessage_projectId_createdAt_id_idx", columnList = "projectId, createdAt, id"),
+        @Index(name = "projectmessage_projectId_seq_idx", columnList = "projectId, seq"),
 })
 public class ProjectMessage extends MessageBase {
 
@@ -15,7 +15,8 @@ import mfy.server.domain.message.entity.type.MessageBase;
 @Getter
 @Entity
 @Table(name = "systemmessages", indexes = {
-        @Index(name = "systemmessage_createdAt_idx", columnList = "createdAt"),
+        @Index(name = "systemmessage_createdAt_id_idx", columnList = "createdAt, id"),
+        @Index(name = "systemmessage_seq_idx", columnList = "seq"),
 })
 public class SystemMessage extends MessageBase {
 
@@ -0,0 +1,65 @@
+package mfy.server.domain.message.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import mfy.server.domain.message.entity.type.MessageType;
+
+/**
+ * Unread state of one user in one channel. Project and private rows count the
+ * messages received since the last read. Global and system chat are shared by
+ * every user, so their head is the channel sequence number and each user's
+ * row holds the sequence number at their last read.
+ */
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "unreadcounters", uniqueConstraints = {
+        @UniqueConstraint(columnNames = { "user_id", "type", "channel_id" })
+}, indexes = {
+        @Index(name = "unreadcounter_userId_idx", columnList = "user_id"),
+})
+public class UnreadCounter {
+    public static final long CHANNEL_HEAD = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(nullable = false)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MessageType type;
+
+    @Column(name = "channel_id", nullable = false)
+    private Long channelId;
+
+    @Column(nullable = false)
+    private Long count;
+
+    @Column
+    private Long lastMessageId;
+
+    @Column
+    private Long lastSenderId;
+
+    @Column
+    private Instant lastMessageAt;
+
+    @Column
+    private Instant lastReadAt;
+}
@@ -1,14 +1,17 @@
 package mfy.server.domain.message.entity.type;
 
 import java.time.Instant;
-import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.Type;
 import org.hibernate.type.SqlTypes;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import io.hypersistence.utils.hibernate.type.json.JsonBinaryType;
+import io.hypersistence.utils.hibernate.type.search.PostgreSQLTSVectorType;
 import jakarta.persistence.Column;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -27,6 +30,10 @@ public class MessageBase {
     @Column(nullable = false)
     private Long id;
 
+    // Position in the channel, assigned by ChannelSequencer in the inserting transaction
+    @Column
+    private Long seq;
+
     @Column(nullable = false)
     private String content;
 
@@ -43,13 +50,21 @@ public class MessageBase {
     @Column(columnDefinition = "jsonb")
     private List<Attachment> attachments;
 
+    // Maintained by Postgres from content, searched through a GIN index
+    @JsonIgnore
+    @Type(PostgreSQLTSVectorType.class)
+    @Column(columnDefinition = "tsvector GENERATED ALWAYS AS (to_tsvector('simple', content)) STORED",
+            insertable = false, updatable = false)
+    private String fulltext;
+
     @PrePersist
     public void prePersist() {
+        // Postgres keeps microseconds, truncate so cursors built from memory match the stored rows
         if (createdAt == null) {
-            createdAt = Instant.now();
+            createdAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
         }
         if (updatedAt == null) {
-            updatedAt = Instant.now();
+            updatedAt = createdAt;
         }
         if (isDeleted == null) {
             isDeleted = false;
@@ -68,6 +83,16 @@ public class MessageBase {
         this.attachments = attachments;
     }
 
+    public MessageBase updateId(Long id) {
+        this.id = id;
+        return this;
+    }
+
+    public MessageBase updateSeq(Long seq) {
+        this.seq = seq;
+        return this;
+    }
+
     public MessageBase updateContent(String content) {
         this.content = content;
         this.updatedAt = Instant.now();
@@ -0,0 +1,27 @@
+package mfy.server.domain.message.event;
+
+import mfy.server.domain.message.entity.GlobalMessage;
+import mfy.server.domain.message.entity.PrivateMessage;
+import mfy.server.domain.message.entity.ProjectMessage;
+import mfy.server.domain.message.entity.SystemMessage;
+import mfy.server.domain.project.entity.Project;
+import mfy.server.domain.user.entity.User;
+
+/**
+ * Published by MessageService when a message is created or changed. Delivery
+ * to WebSocket clients happens in listeners, after the transaction commits.
+ */
+public class MessageEvent {
+
+    public static record SystemMessageEvent(SystemMessage message) {
+    }
+
+    public static record GlobalMessageEvent(GlobalMessage message) {
+    }
+
+    public static record ProjectMessageEvent(Project project, ProjectMessage message) {
+    }
+
+    public static record PrivateMessageEvent(User sender, User recipient, PrivateMessage message) {
+    }
+}
@@ -2,20 +2,58 @@ package mfy.server.domain.message.repository;
 
 import mfy.server.domain.message.dto.MessageResponseDto.GlobalMessageDto;
 import mfy.server.domain.message.entity.GlobalMessage;
-import mfy.server.domain.user.entity.User;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface GlobalMessageRepository extends JpaRepository<GlobalMessage, Long> {
 
-    Page<GlobalMessageDto> findAllBy(Pageable pageable);
+    @Query("""
+            SELECT new mfy.server.domain.message.dto.MessageResponseDto$GlobalMessageDto(
+                m.id, m.content, m.createdAt, m.updatedAt, m.isDeleted, m.attachments, m.senderId, m.seq)
+            FROM GlobalMessage m
+            ORDER BY m.createdAt DESC, m.id DESC
+            """)
+    List<GlobalMessageDto> findLatest(Pageable pageable);
 
-    List<GlobalMessageDto> findBySenderAndCreatedAtGreaterThan(User sender, Instant createdAt);
+    @Query("""
+            SELECT new mfy.server.domain.message.dto.MessageResponseDto$GlobalMessageDto(
+                m.id, m.content, m.createdAt, m.updatedAt, m.isDeleted, m.attachments, m.senderId, m.seq)
+            FROM GlobalMessage m
+            WHERE m.createdAt <= :createdAt AND (m.createdAt < :createdAt OR m.id < :id)
+            ORDER BY m.createdAt DESC, m.id DESC
+            """)
+    List<GlobalMessageDto> findBefore(Instant createdAt, Long id, Pageable pageable);
+
+    @Query("""
+            SELECT new mfy.server.domain.message.dto.MessageResponseDto$GlobalMessageDto(
+                m.id, m.content, m.createdAt, m.updatedAt, m.isDeleted, m.attachments, m.senderId, m.seq)
+            FROM GlobalMessage m
+            WHERE m.createdAt >= :createdAt AND (m.createdAt > :createdAt OR m.id > :id)
+            ORDER BY m.createdAt ASC, m.id ASC
+            """)
+    List<GlobalMessageDto> findAfter(Instant createdAt, Long id, Pageable pageable);
+
+    @Query("""
+            SELECT new mfy.server.domain.message.dto.MessageResponseDto$GlobalMessageDto(
+                m.id, m.content, m.createdAt, m.updatedAt, m.isDeleted, m.attachments, m.senderId, m.seq)
+            FROM GlobalMessage m
+            WHERE m.seq > :seq
+            ORDER BY m.seq ASC
+            """)
+    List<GlobalMessageDto> findSince(Long seq, Pageable pageable);
+
+    @Query(value = """
+            SELECT a ->> 'key' FROM globalmessages m
+            CROSS JOIN LATERAL jsonb_array_elements(m.attachments) a
+            WHERE m.id = :messageId AND CAST(a ->> 'id' AS bigint) = :attachmentId
+            """, nativeQuery = true)
+    Optional<String> findAttachmentKey(Long messageId, Long attachmentId);
 }
@@ -1,23 +1,69 @@
 package mfy.server.domain.message.repository;
 
-import mfy.server.domain.message.dto.MessageResponseDto.GlobalMessageDto;
 import mfy.server.domain.message.dto.MessageResponseDto.PrivateMessageDto;
 import mfy.server.domain.message.entity.PrivateMessage;
-import mfy.server.domain.user.entity.User;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface PrivateMessageRepository extends JpaRepository<PrivateMessage, Long> {
-    Page<PrivateMessageDto> findAllByPairId(Long pairId, Pageable pageable);
 
-    List<PrivateMessageDto> findByRecipientAndCreatedAtGreaterThan(User recipient, Instant createdAt);
+    @Query("""
+            SELECT new mfy.server.domain.message.dto.MessageResponseDto$PrivateMessageDto(
+                m.id, m.content, m.createdAt, m.updatedAt, m.isDeleted, m.attachments, m.pairId, m.senderId,
+                m.recipientId, m.seq)
+            FROM PrivateMessage m
+            WHERE m.pairId = :pairId
+            ORDER BY m.createdAt DESC, m.id DESC
+            """)
+    List<PrivateMessageDto> findLatest(Long pairId, Pageable pageable);
+
+    @Query("""
+            SELECT new mfy.server.domain.message.dto.MessageResponseDto$PrivateMessageDto(
+                m.id, m.content, m.createdAt, m.updatedAt, m.isDeleted, m.attachments, m.pairId, m.senderId,
+                m.recipientId, m.seq)
+            FROM PrivateMessage m
+            WHERE m.pairId = :pairId
+                AND m.createdAt <= :createdAt AND (m.createdAt < :createdAt OR m.id < :id)
+            ORDER BY m.createdAt DESC, m.id DESC
+            """)
+    List<PrivateMessageDto> findBefore(Long pairId, Instant createdAt, Long id, Pageable pageable);
+
+    @Query("""
+            SELECT new mfy.server.domain.message.dto.MessageResponseDto$PrivateMessageDto(
+                m.id, m.content, m.createdAt, m.updatedAt, m.isDeleted, m.attachments, m.pairId, m.senderId,
+                m.recipientId, m.seq)
+            FROM PrivateMessage m
+            WHERE m.pairId = :pairId
+                AND m.createdAt >= :createdAt AND (m.createdAt > :createdAt OR m.id > :id)
+            ORDER BY m.createdAt ASC, m.id ASC
+            """)
+    List<PrivateMessageDto> findAfter(Long pairId, Instant createdAt, Long id, Pageable pageable);
+
+    @Query("""
+            SELECT new mfy.server.domain.message.dto.MessageResponseDto$PrivateMessageDto(
+                m.id, m.content, m.createdAt, m.updatedAt, m.isDeleted, m.attachments, m.pairId, m.senderId,
+                m.recipientId, m.seq)
+            FROM PrivateMessage m
+            WHERE m.pairId = :pairId AND m.seq > :seq
+            ORDER BY m.seq ASC
+            """)
+    List<PrivateMessageDto> findSince(Long pairId, Long seq, Pageable pageable);
 
     long countByPairId(Long pairId);
+
+    @Query(value = """
+            SELECT a ->> 'key' FROM privatemessages m
+            CROSS JOIN LATERAL jsonb_array_elements(m.attachments) a
+            WHERE m.id = :messageId AND CAST(a ->> 'id' AS bigint) = :attachmentId
+              AND (m.sender_id = :userId OR m.recipient_id = :userId)
+            """, nativeQuery = true)
+    Optional<String> findAttachmentKey(Long messageId, Long attachmentId, Long userId);
 }
@@ -1,24 +1,66 @@
 package mfy.server.domain.message.repository;
 
-import mfy.server.domain.message.dto.MessageResponseDto.IProjectMessage;
 import mfy.server.domain.message.dto.MessageResponseDto.ProjectMessageDto;
 import mfy.server.domain.message.entity.ProjectMessage;
 import mfy.server.domain.project.entity.Project;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ProjectMessageRepository extends JpaRepository<ProjectMessage, Long> {
 
-    Page<ProjectMessageDto> findAllByProject(Project project, Pageable pageable);
+    @Query("""
+            SELECT new mfy.server.domain.message.dto.MessageResponseDto$ProjectMessageDto(
+                m.id, m.content, m.createdAt, m.updatedAt, m.isDeleted, m.attachments, m.senderId, m.projectId, m.seq)
+            FROM ProjectMessage m
+            WHERE m.projectId = :projectId
+            ORDER BY m.createdAt DESC, m.id DESC
+            """)
+    List<ProjectMessageDto> findLatest(Long projectId, Pageable pageable);
 
-    List<ProjectMessageDto> findByProjectInAndCreatedAtGreaterThan(List<Project> projects, Instant createdAt);
+    @Query("""
+            SELECT new mfy.server.domain.message.dto.MessageResponseDto$ProjectMessageDto(
+                m.id, m.content, m.createdAt, m.updatedAt, m.isDeleted, m.attachments, m.senderId, m.projectId, m.seq)
+            FROM ProjectMessage m
+            WHERE m.projectId = :projectId
+                AND m.createdAt <= :createdAt AND (m.createdAt < :createdAt OR m.id < :id)
+            ORDER BY m.createdAt DESC, m.id DESC
+            """)
+    List<ProjectMessageDto> findBefore(Long projectId, Instant createdAt, Long id, Pageable pageable);
+
+    @Query("""
+            SELECT new mfy.server.domain.message.dto.MessageResponseDto$ProjectMessageDto(
+                m.id, m.content, m.createdAt, m.updatedAt, m.isDeleted, m.attachments, m.senderId, m.projectId, m.seq)
+            FROM ProjectMessage m
+            WHERE m.projectId = :projectId
+                AND m.createdAt >= :createdAt AND (m.createdAt > :createdAt OR m.id > :id)
+            ORDER BY m.createdAt ASC, m.id ASC
+            """)
+    List<ProjectMessageDto> findAfter(Long projectId, Instant createdAt, Long id, Pageable pageable);
+
+    @Query("""
+            SELECT new mfy.server.domain.message.dto.MessageResponseDto$ProjectMessageDto(
+                m.id, m.content, m.createdAt, m.updatedAt, m.isDeleted, m.attachments, m.senderId, m.projectId, m.seq)
+            FROM ProjectMessage m
+            WHERE m.projectId = :projectId AND m.seq > :seq
+            ORDER BY m.seq ASC
+            """)
+    List<ProjectMessageDto> findSince(Long projectId, Long seq, Pageable pageable);
 
     long countByProject(Project project);
+
+    @Query(value = """
+            SELECT a ->> 'key' FROM projectmessages m
+            CROSS JOIN LATERAL jsonb_array_elements(m.attachments) a
+            WHERE m.id = :messageId AND CAST(a ->> 'id' AS bigint) = :attachmentId
+              AND EXISTS (SELECT 1 FROM translators t WHERE t.project_id = m.project_id AND t.user_id = :userId)
+            """, nativeQuery = true)
+    Optional<String> findAttachmentKey(Long messageId, Long attachmentId, Long userId);
 }
@@ -4,17 +4,56 @@ import mfy.server.domain.message.dto.MessageResponseDto.SystemMessageDto;
 import mfy.server.domain.message.entity.SystemMessage;
 import java.time.Instant;
 import java.util.List;
-import org.springframework.data.domain.Page;
+import java.util.Optional;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface SystemMessageRepository extends JpaRepository<SystemMessage, Long> {
 
-    Page<SystemMessageDto> findAllBy(Pageable pageable);
+    @Query("""
+            SELECT new mfy.server.domain.message.dto.MessageResponseDto$SystemMessageDto(
+                m.id, m.content, m.createdAt, m.updatedAt, m.isDeleted, m.isLasting, m.attachments, m.seq)
+            FROM SystemMessage m
+            ORDER BY m.createdAt DESC, m.id DESC
+            """)
+    List<SystemMessageDto> findLatest(Pageable pageable);
+
+    @Query("""
+            SELECT new mfy.server.domain.message.dto.MessageResponseDto$SystemMessageDto(
+                m.id, m.content, m.createdAt, m.updatedAt, m.isDeleted, m.isLasting, m.attachments, m.seq)
+            FROM SystemMessage m
+            WHERE m.createdAt <= :createdAt AND (m.createdAt < :createdAt OR m.id < :id)
+            ORDER BY m.createdAt DESC, m.id DESC
+            """)
+    List<SystemMessageDto> findBefore(Instant createdAt, Long id, Pageable pageable);
+
+    @Query("""
+            SELECT new mfy.server.domain.message.dto.MessageResponseDto$SystemMessageDto(
+                m.id, m.content, m.createdAt, m.updatedAt, m.isDeleted, m.isLasting, m.attachments, m.seq)
+            FROM SystemMessage m
+            WHERE m.createdAt >= :createdAt AND (m.createdAt > :createdAt OR m.id > :id)
+            ORDER BY m.createdAt ASC, m.id ASC
+            """)
+    List<SystemMessageDto> findAfter(Instant createdAt, Long id, Pageable pageable);
+
+    @Query("""
+            SELECT new mfy.server.domain.message.dto.MessageResponseDto$SystemMessageDto(
+                m.id, m.content, m.createdAt, m.updatedAt, m.isDeleted, m.isLasting, m.attachments, m.seq)
+            FROM SystemMessage m
+            WHERE m.seq > :seq
+            ORDER BY m.seq ASC
+            """)
+    List<SystemMessageDto> findSince(Long seq, Pageable pageable);
 
     List<SystemMessageDto> findByCreatedAtGreaterThanOrIsLastingTrue(Instant createdAt);
 
-    List<SystemMessageDto> findByCreatedAtGreaterThan(Instant createdAt);
-}
\ No newline at end of file
+    @Query(value = """
+            SELECT a ->> 'key' FROM systemmessages m
+            CROSS JOIN LATERAL jsonb_array_elements(m.attachments) a
+            WHERE m.id = :messageId AND CAST(a ->> 'id' AS bigint) = :attachmentId
+            """, nativeQuery = true)
+    Optional<String> findAttachmentKey(Long messageId, Long attachmentId);
+}
@@ -0,0 +1,61 @@
+package mfy.server.domain.message.repository;
+
+import mfy.server.domain.message.entity.UnreadCounter;
+import mfy.server.domain.message.entity.type.MessageType;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UnreadCounterRepository extends JpaRepository<UnreadCounter, Long> {
+
+    List<UnreadCounter> findByUserId(Long userId);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO unreadcounters (user_id, type, channel_id, count, last_message_id, last_sender_id, last_message_at)
+            VALUES (:userId, :type, :channelId, 1, :messageId, :senderId, :createdAt)
+            ON CONFLICT (user_id, type, channel_id) DO UPDATE SET
+                count = unreadcounters.count + 1,
+                last_message_id = EXCLUDED.last_message_id,
+                last_sender_id = EXCLUDED.last_sender_id,
+                last_message_at = EXCLUDED.last_message_at
+            """, nativeQuery = true)
+    void increment(Long userId, String type, Long channelId, Long messageId, Long senderId, Instant createdAt);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO unreadcounters (user_id, type, channel_id, count, last_message_id, last_sender_id, last_message_at)
+            SELECT t.user_id, 'PROJECT', :projectId, 1, :messageId, :senderId, :createdAt
+            FROM translators t WHERE t.project_id = :projectId AND t.user_id <> :senderId
+            ON CONFLICT (user_id, type, channel_id) DO UPDATE SET
+                count = unreadcounters.count + 1,
+                last_message_id = EXCLUDED.last_message_id,
+                last_sender_id = EXCLUDED.last_sender_id,
+                last_message_at = EXCLUDED.last_message_at
+            """, nativeQuery = true)
+    void incrementProjectMembers(Long projectId, Long messageId, Long senderId, Instant createdAt);
+
+    @Modifying
+    @Query("""
+            UPDATE UnreadCounter c SET c.count = c.count + 1
+            WHERE c.userId = :userId AND c.type = mfy.server.domain.message.entity.type.MessageType.GLOBAL
+                AND c.channelId = 0
+            """)
+    void skipOwnGlobalMessage(Long userId);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO unreadcounters (user_id, type, channel_id, count, last_read_at)
+            VALUES (:userId, :type, :channelId, :count, :readAt)
+            ON CONFLICT (user_id, type, channel_id) DO UPDATE SET
+                count = EXCLUDED.count,
+                last_read_at = EXCLUDED.last_read_at
+            """, nativeQuery = true)
+    void markRead(Long userId, String type, Long channelId, Long count, Instant readAt);
+}
@@ -0,0 +1,58 @@
+package mfy.server.domain.message.service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import mfy.server.domain.message.entity.ChannelSequence;
+import mfy.server.domain.message.entity.type.MessageBase;
+import mfy.server.domain.message.entity.type.MessageType;
+
+/**
+ * Hands out per-channel sequence numbers. The counter row stays locked until
+ * the caller's transaction commits, so numbers in a channel are gap-free and
+ * follow commit order.
+ */
+@RequiredArgsConstructor
+@Component
+public class ChannelSequencer {
+
+    private static final String ALLOCATE_SQL = """
+            INSERT INTO channelsequences (type, channel_id, seq) VALUES (?, ?, ?)
+            ON CONFLICT (type, channel_id) DO UPDATE SET seq = channelsequences.seq + EXCLUDED.seq
+            RETURNING seq
+            """;
+
+    private static final String SHARED_HEADS_SQL = """
+            SELECT type, seq FROM channelsequences WHERE channel_id = ? AND type IN ('GLOBAL', 'SYSTEM')
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Numbers the messages in list order, must run inside the transaction that inserts them
+    public void assign(MessageType type, Long channelId, List<? extends MessageBase> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        Long last = jdbcTemplate.queryForObject(ALLOCATE_SQL, Long.class, type.name(), channelId,
+                messages.size());
+        long seq = last - messages.size();
+        for (MessageBase message : messages) {
+            message.updateSeq(++seq);
+        }
+    }
+
+    // Last committed number of global and system chat, a plain read that never waits on senders
+    public Map<MessageType, Long> getSharedHeads() {
+        Map<MessageType, Long> heads = new EnumMap<>(MessageType.class);
+        jdbcTemplate.query(SHARED_HEADS_SQL,
+                (RowCallbackHandler) rs -> heads.put(MessageType.valueOf(rs.getString(1)), rs.getLong(2)),
+                ChannelSequence.SHARED_CHANNEL);
+        return heads;
+    }
+}
@@ -0,0 +1,276 @@
+package mfy.server.domain.message.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mfy.server.domain.message.service.type.OnlineUser;
+import mfy.server.domain.message.service.type.PresenceEvent;
+import mfy.server.domain.message.service.type.PresenceEvent.Entry;
+
+/**
+ * Presence merged over every node of the cluster. Each node publishes its own
+ * transitions and a periodic snapshot on the PresenceBus; a user is online
+ * while at least one node reports them. Lookups and the online count read a
+ * concurrent map and never lock or query the database. Lost events are
+ * repaired by the next snapshot, and a node that stops publishing is dropped
+ * after missing three snapshots.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class ClusterPresence {
+
+    private static final int MISSED_SNAPSHOTS = 3;
+    private static final long[] NO_PROJECTS = new long[0];
+
+    @Value("${server.config.websocket.relay.enabled:false}")
+    private boolean isClustered;
+
+    @Value("${server.config.presence.cluster.snapshot-seconds:15}")
+    private long snapshotSeconds;
+
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private final PresenceBus presenceBus;
+
+    // Users each node reports online, this node included, guarded by this
+    private final Map<String, NodeView> nodes = new HashMap<>();
+
+    // Number of nodes each online user is connected to, guarded by this
+    private final Long2IntOpenHashMap nodeCounts = new Long2IntOpenHashMap();
+
+    // Project ids of each online user as reported by the node they connected to first, guarded by this
+    private final Long2ObjectOpenHashMap<long[]> projectIds = new Long2ObjectOpenHashMap<>();
+
+    // Users online on any node, read without locking
+    private final Map<Long, OnlineUser> users = new ConcurrentHashMap<>();
+
+    private volatile BiConsumer<OnlineUser, long[]> listener = (user, projects) -> {
+    };
+
+    private volatile Runnable afterUpdate = () -> {
+    };
+
+    private static class NodeView {
+        private final Roaring64Bitmap userIds = new Roaring64Bitmap();
+        private Instant seenAt = Instant.now();
+    }
+
+    @PostConstruct
+    public void start() {
+        presenceBus.subscribe(this::receive);
+    }
+
+    // Other nodes drop this node's users right away instead of waiting for it to expire
+    @PreDestroy
+    public synchronized void stop() {
+        presenceBus.publish(PresenceEvent.snapshot(nodeId, List.of()));
+    }
+
+    /**
+     * Receives cluster-wide transitions with the user's project ids: a user
+     * coming online on their first node, or going offline when their last
+     * node reports them gone. The listener is called while holding this
+     * instance's lock, afterUpdate once the lock is released, so work that
+     * may block belongs in afterUpdate.
+     */
+    public void setListener(BiConsumer<OnlineUser, long[]> listener, Runnable afterUpdate) {
+        this.listener = listener;
+        this.afterUpdate = afterUpdate;
+    }
+
+    public boolean isClustered() {
+        return isClustered;
+    }
+
+    // Each node numbers its client deltas, so clients follow the topic of the node they are connected to
+    public String getNodeTopic(String topic) {
+        return isClustered ? topic + "/" + nodeId : topic;
+    }
+
+    public boolean isOnline(Long userId) {
+        return users.containsKey(userId);
+    }
+
+    public OnlineUser get(Long userId) {
+        return users.get(userId);
+    }
+
+    public int getOnlineCount() {
+        return users.size();
+    }
+
+    public List<OnlineUser> getOnlineUsers() {
+        return new ArrayList<>(users.values());
+    }
+
+    /**
+     * Applies a transition of a user on this node and publishes it. Publishing
+     * under the lock keeps changes and snapshots of this node in order on the
+     * bus. The caller may hold its own lock, so it runs afterUpdate itself
+     * once that is released.
+     */
+    public synchronized void update(OnlineUser user, long[] userProjectIds) {
+        apply(nodeId, Entry.from(user, userProjectIds));
+        presenceBus.publish(PresenceEvent.change(nodeId, user, userProjectIds));
+    }
+
+    /**
+     * Records a membership added while the user is online and runs the update
+     * under the same lock as transitions, so it cannot interleave with the
+     * user going offline. Only this node learns it before the next connect.
+     */
+    public void addProject(long userId, long projectId, Runnable update) {
+        synchronized (this) {
+            long[] current = projectIds.get(userId);
+            if (current == null) {
+                return;
+            }
+            for (long id : current) {
+                if (id == projectId) {
+                    return;
+                }
+            }
+            long[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = projectId;
+            projectIds.put(userId, next);
+            update.run();
+        }
+        afterUpdate.run();
+    }
+
+    private void receive(PresenceEvent event) {
+        if (nodeId.equals(event.node())) {
+            return;
+        }
+        synchronized (this) {
+            if (event.isSnapshot()) {
+                applySnapshot(event);
+            } else {
+                for (Entry entry : event.entries()) {
+                    apply(event.node(), entry);
+                }
+            }
+        }
+        afterUpdate.run();
+    }
+
+    private void apply(String node, Entry entry) {
+        NodeView view = nodes.computeIfAbsent(node, k -> new NodeView());
+        view.seenAt = Instant.now();
+        if (entry.isOnline()) {
+            goOnline(view, entry);
+        } else {
+            goOffline(view, entry.id(), entry.lastOnline());
+        }
+    }
+
+    private void applySnapshot(PresenceEvent event) {
+        NodeView view = nodes.computeIfAbsent(event.node(), k -> new NodeView());
+        view.seenAt = Instant.now();
+        Roaring64Bitmap reported = new Roaring64Bitmap();
+        for (Entry entry : event.entries()) {
+            reported.addLong(entry.id());
+        }
+        Instant now = Instant.now();
+        for (long userId : view.userIds.toArray()) {
+            if (!reported.contains(userId)) {
+                goOffline(view, userId, now);
+            }
+        }
+        for (Entry entry : event.entries()) {
+            goOnline(view, entry);
+        }
+    }
+
+    private void goOnline(NodeView view, Entry entry) {
+        long userId = entry.id();
+        if (view.userIds.contains(userId)) {
+            return;
+        }
+        view.userIds.addLong(userId);
+        if (nodeCounts.addTo(userId, 1) == 0) {
+            OnlineUser user = entry.toOnlineUser();
+            long[] userProjectIds = entry.projectIds() != null ? entry.projectIds() : NO_PROJECTS;
+            users.put(userId, user);
+            projectIds.put(userId, userProjectIds);
+            listener.accept(user, userProjectIds);
+        }
+    }
+
+    private void goOffline(NodeView view, long userId, Instant lastOnline) {
+        if (!view.userIds.contains(userId)) {
+            return;
+        }
+        view.userIds.removeLong(userId);
+        if (nodeCounts.addTo(userId, -1) > 1) {
+            return;
+        }
+        nodeCounts.remove(userId);
+        long[] userProjectIds = projectIds.remove(userId);
+        OnlineUser user = users.remove(userId);
+        if (user != null) {
+            listener.accept(user.withOffline(lastOnline), userProjectIds != null ? userProjectIds : NO_PROJECTS);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${server.config.presence.cluster.snapshot-seconds:15}", timeUnit = TimeUnit.SECONDS)
+    public void publishSnapshot() {
+        if (!isClustered) {
+            return;
+        }
+        synchronized (this) {
+            snapshotAndExpire();
+        }
+        afterUpdate.run();
+    }
+
+    private void snapshotAndExpire() {
+        NodeView self = nodes.computeIfAbsent(nodeId, k -> new NodeView());
+        self.seenAt = Instant.now();
+        List<Entry> entries = new ArrayList<>(self.userIds.getIntCardinality());
+        for (long userId : self.userIds.toArray()) {
+            OnlineUser user = users.get(userId);
+            if (user != null) {
+                entries.add(Entry.from(user, projectIds.get(userId)));
+            }
+        }
+        presenceBus.publish(PresenceEvent.snapshot(nodeId, entries));
+
+        Instant expiry = Instant.now().minusSeconds(snapshotSeconds * MISSED_SNAPSHOTS);
+        Iterator<Map.Entry<String, NodeView>> iterator = nodes.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, NodeView> node = iterator.next();
+            if (node.getKey().equals(nodeId) || node.getValue().seenAt.isAfter(expiry)) {
+                continue;
+            }
+            for (long userId : node.getValue().userIds.toArray()) {
+                goOffline(node.getValue(), userId, node.getValue().seenAt);
+            }
+            iterator.remove();
+            log.warn("Presence of node {} expired", node.getKey());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package mfy.server.domain.message.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import mfy.server.domain.message.service.type.PresenceEvent;
+
+/**
+ * In-process presence bus, used on a single node and for wiring several
+ * ClusterPresence instances together in tests. Like a broker it delivers on
+ * its own thread, in publish order, so publishers never call listeners while
+ * holding their own locks.
+ */
+@Slf4j
+@ConditionalOnProperty(name = "server.config.websocket.relay.enabled", havingValue = "false", matchIfMissing = true)
+@Component
+public class LocalPresenceBus implements PresenceBus {
+
+    private final List<Consumer<PresenceEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatcher = Executors
+            .newSingleThreadExecutor(r -> new Thread(r, "presence-bus"));
+
+    @PreDestroy
+    public void stop() {
+        dispatcher.shutdown();
+    }
+
+    @Override
+    public void publish(PresenceEvent event) {
+        dispatcher.execute(() -> {
+            for (Consumer<PresenceEvent> listener : listeners) {
+                try {
+                    listener.accept(event);
+                } catch (Exception e) {
+                    log.error("Presence listener failed: {}", e.getMessage());
+                }
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(Consumer<PresenceEvent> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,193 @@
+package mfy.server.domain.message.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mfy.server.global.websocket.WebSocketInterceptor;
+
+/**
+ * Coalesces the encoded messages of a busy topic into one JSON array frame,
+ * published on the topic's /batch destination. A batch is sent when it
+ * reaches max-size or window-ms after its first message, whichever comes
+ * first, and dropped once empty. Clients opt in with a "batch: true" header
+ * on SUBSCRIBE, which WebSocketInterceptor turns into a subscription to the
+ * batch destination. The interceptor also reports subscriptions here, so a
+ * topic is only published in the form its local subscribers use; with the
+ * relay other nodes' subscribers are unknown and both forms are published.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class MessageBatcher {
+
+    public static final String BATCH_HEADER = "batch";
+    public static final String BATCH_SUFFIX = "/batch";
+
+    @Value("${server.config.message.batch.enabled:false}")
+    private boolean isEnabled;
+
+    @Value("${server.config.message.batch.window-ms:10}")
+    private long windowMs;
+
+    @Value("${server.config.message.batch.max-size:50}")
+    private int maxSize;
+
+    @Value("${server.config.websocket.relay.enabled:false}")
+    private boolean isRelayEnabled;
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    // Destinations of the local subscriptions to batchable topics, by session and subscription id
+    private final Map<String, Map<String, String>> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, Integer> subscriberCounts = new ConcurrentHashMap<>();
+
+    private static class Batch {
+        private final List<byte[]> items = new ArrayList<>();
+        private boolean isScheduled;
+        // Set once the batch left the map, a sender holding it takes a new one
+        private boolean isRemoved;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (isEnabled) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "message-batcher"));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    public boolean isBatchable(String destination) {
+        return isEnabled && (MessageManager.GLOBAL_TOPIC.equals(destination)
+                || (destination.startsWith(WebSocketInterceptor.PROJECT_TOPIC) && !destination.endsWith(BATCH_SUFFIX)
+                        && !destination.endsWith(MessageManager.PRESENCE_SUFFIX)
+                        && !destination.endsWith(MessageManager.TYPING_SUFFIX)));
+    }
+
+    // Whether a destination has subscribers on this node, always true with the relay
+    public boolean hasSubscribers(String destination) {
+        return isRelayEnabled || subscriberCounts.containsKey(destination);
+    }
+
+    public void onSubscribe(String sessionId, String subscriptionId, String destination) {
+        String topic = destination.endsWith(BATCH_SUFFIX)
+                ? destination.substring(0, destination.length() - BATCH_SUFFIX.length())
+                : destination;
+        if (sessionId == null || subscriptionId == null || !isBatchable(topic)) {
+            return;
+        }
+        String previous = subscriptions.computeIfAbsent(sessionId, k -> new ConcurrentHashMap<>())
+                .put(subscriptionId, destination);
+        if (previous != null) {
+            removeSubscriber(previous);
+        }
+        subscriberCounts.merge(destination, 1, Integer::sum);
+    }
+
+    public void onUnsubscribe(String sessionId, String subscriptionId) {
+        Map<String, String> session = sessionId != null ? subscriptions.get(sessionId) : null;
+        if (session == null || subscriptionId == null) {
+            return;
+        }
+        String destination = session.remove(subscriptionId);
+        if (destination != null) {
+            removeSubscriber(destination);
+        }
+    }
+
+    public void onDisconnect(String sessionId) {
+        Map<String, String> session = sessionId != null ? subscriptions.remove(sessionId) : null;
+        if (session != null) {
+            session.values().forEach(this::removeSubscriber);
+        }
+    }
+
+    private void removeSubscriber(String destination) {
+        subscriberCounts.computeIfPresent(destination, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    public void add(String destination, byte[] body) {
+        while (true) {
+            Batch batch = batches.computeIfAbsent(destination, k -> new Batch());
+            // Sending under the batch lock keeps batches of one destination in order
+            synchronized (batch) {
+                if (batch.isRemoved) {
+                    continue;
+                }
+                batch.items.add(body);
+                if (batch.items.size() >= maxSize) {
+                    send(destination, batch);
+                }
+                if (!batch.items.isEmpty() && !batch.isScheduled) {
+                    batch.isScheduled = true;
+                    flusher.schedule(() -> flush(destination, batch), windowMs, TimeUnit.MILLISECONDS);
+                }
+                removeIfIdle(destination, batch);
+                return;
+            }
+        }
+    }
+
+    private void flush(String destination, Batch batch) {
+        synchronized (batch) {
+            batch.isScheduled = false;
+            if (!batch.items.isEmpty()) {
+                send(destination, batch);
+            }
+            removeIfIdle(destination, batch);
+        }
+    }
+
+    // Quiet topics do not keep a batch, the next message creates a new one
+    private void removeIfIdle(String destination, Batch batch) {
+        if (batch.items.isEmpty() && !batch.isScheduled) {
+            batch.isRemoved = true;
+            batches.remove(destination, batch);
+        }
+    }
+
+    // Joins the already encoded messages into a JSON array, nothing is serialized again
+    private void send(String destination, Batch batch) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        for (int i = 0; i < batch.items.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(batch.items.get(i));
+        }
+        out.write(']');
+        batch.items.clear();
+        try {
+            messagingTemplate.send(destination + BATCH_SUFFIX, MessageManager.jsonMessage(out.toByteArray()));
+        } catch (Exception e) {
+            log.error("Failed to send batch to {}: {}", destination, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package mfy.server.domain.message.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mfy.server.domain.message.event.MessageEvent.GlobalMessageEvent;
+import mfy.server.domain.message.event.MessageEvent.PrivateMessageEvent;
+import mfy.server.domain.message.event.MessageEvent.ProjectMessageEvent;
+import mfy.server.domain.message.event.MessageEvent.SystemMessageEvent;
+
+/**
+ * Delivers committed messages to WebSocket clients off the request thread.
+ * Each channel is pinned to one lane, a single thread with a bounded queue, so
+ * a channel keeps its order while a large project cannot hold up the sender.
+ * System and private messages have their own priority lanes, so a burst of
+ * global or project chat never queues in front of them. When a lane is full
+ * the delivery is dropped and counted; clients catch up through the history
+ * endpoints.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class MessageFanout {
+
+    private static final long GLOBAL_LANE = -1;
+    private static final long SYSTEM_LANE = -2;
+
+    @Value("${server.config.message.fanout.lanes:4}")
+    private int laneCount;
+
+    @Value("${server.config.message.fanout.priority-lanes:2}")
+    private int priorityLaneCount;
+
+    @Value("${server.config.message.fanout.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private final MessageManager messageManager;
+
+    private ExecutorService[] lanes;
+    private ExecutorService[] priorityLanes;
+    private final AtomicLong dropped = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        lanes = createLanes(laneCount, "message-fanout-");
+        priorityLanes = createLanes(priorityLaneCount, "message-fanout-priority-");
+    }
+
+    private ExecutorService[] createLanes(int count, String prefix) {
+        ExecutorService[] created = new ExecutorService[count];
+        for (int i = 0; i < count; i++) {
+            String name = prefix + i;
+            created[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), r -> new Thread(r, name));
+        }
+        return created;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : priorityLanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            lane.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        for (ExecutorService lane : priorityLanes) {
+            lane.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSystemMessage(SystemMessageEvent event) {
+        submit(priorityLanes, SYSTEM_LANE, () -> messageManager.sendSystem(event.message()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onGlobalMessage(GlobalMessageEvent event) {
+        submit(lanes, GLOBAL_LANE, () -> messageManager.sendGlobal(event.message()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProjectMessage(ProjectMessageEvent event) {
+        submit(lanes, event.project().getId(), () -> messageManager.sendToProject(event.project(), event.message()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPrivateMessage(PrivateMessageEvent event) {
+        submit(priorityLanes, event.message().getPairId(),
+                () -> messageManager.sendToUser(event.sender(), event.recipient(), event.message()));
+    }
+
+    private void submit(ExecutorService[] group, long channel, Runnable delivery) {
+        ExecutorService lane = group[Math.floorMod(Long.hashCode(channel), group.length)];
+        try {
+            lane.execute(() -> {
+                try {
+                    delivery.run();
+                } catch (Exception e) {
+                    log.error("Message delivery failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    @Scheduled(fixedRate = 1, timeUnit = TimeUnit.MINUTES)
+    public void logStats() {
+        long count = dropped.getAndSet(0);
+        if (count > 0) {
+            log.warn("Message fanout dropped {} deliveries in the last minute", count);
+        }
+    }
+}
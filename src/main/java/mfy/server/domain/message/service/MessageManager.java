@@ -1,112 +1,302 @@
 package mfy.server.domain.message.service;
 
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
-import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.MimeTypeUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import mfy.server.domain.message.dto.MessageResponseDto.PresenceDeltaDto;
+import mfy.server.domain.message.dto.MessageResponseDto.PresenceDto;
 import mfy.server.domain.message.entity.GlobalMessage;
 import mfy.server.domain.message.entity.PrivateMessage;
 import mfy.server.domain.message.entity.ProjectMessage;
 import mfy.server.domain.message.entity.SystemMessage;
+import mfy.server.domain.message.service.PresenceStore.Presence;
 import mfy.server.domain.message.service.type.OnlineUser;
 import mfy.server.domain.project.entity.Project;
+import mfy.server.domain.project.event.TranslatorEvent.TranslatorAddedEvent;
 import mfy.server.domain.project.service.TranslatorService;
 import mfy.server.domain.user.entity.User;
 import mfy.server.domain.user.repository.UserRepository;
+import mfy.server.global.websocket.WebSocketInterceptor;
 
 @Slf4j
 @RequiredArgsConstructor
 @Component
 public class MessageManager {
 
-    private final Map<Long, OnlineUser> users = new ConcurrentHashMap<>();
-    private final Map<Long, Set<String>> projects = new ConcurrentHashMap<>();
+    public static final String PRESENCE_TOPIC = "/topic/message/online";
+    public static final String GLOBAL_TOPIC = "/topic/message/global";
+    public static final String PRESENCE_SUFFIX = "/presence";
+    public static final String TYPING_SUFFIX = "/typing";
+
+    // Number of presence deltas kept for clients resyncing from a version
+    @Value("${server.config.presence.history-size:1024}")
+    private int presenceHistorySize;
+
+    // Ids of the online members of each project, guarded by itself
+    private final Long2ObjectOpenHashMap<Roaring64Bitmap> projects = new Long2ObjectOpenHashMap<>();
+
+    // Orders local transitions of the same user, see updatePresence
+    private final Object presenceLock = new Object();
+
+    private final Deque<PresenceDeltaDto> presenceLog = new ArrayDeque<>();
+    private long presenceVersion;
+    private String presenceTopic;
+
+    // Presence frames in version order, sent once every presence lock is released
+    private final Queue<PresenceFrame> presenceOutbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isFlushingPresence = new AtomicBoolean();
+
+    private record PresenceFrame(String destination, Message<byte[]> message) {
+    }
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final MessageBatcher messageBatcher;
     private final TranslatorService translatorService;
     private final UserRepository userRepository;
+    private final PresenceStore presenceStore;
+    private final ClusterPresence clusterPresence;
 
-    public void addUser(User user) {
-        OnlineUser onlineUser = users.get(user.getId());
-        if (onlineUser == null) {
-            onlineUser = new OnlineUser(user);
-            users.put(user.getId(), onlineUser);
-        } else {
-            onlineUser.updateIsOnline();
-        }
-        sendOnline(onlineUser);
-        addToProjects(user);
+    @PostConstruct
+    public void start() {
+        presenceTopic = clusterPresence.getNodeTopic(PRESENCE_TOPIC);
+        clusterPresence.setListener(this::publishPresence, this::flushPresence);
     }
 
-    private void addToProjects(User user) {
-        List<Long> projectIds = translatorService.getProjectIds(user);
-        for (Long projectId : projectIds) {
-            projects.computeIfAbsent(projectId, k -> ConcurrentHashMap.newKeySet()).add(
-                    user.getEmail());
-
-            log.info("{} joined project chat: {}", user.getEmail(), projectId);
-            log.info("Total members: {}", this.getMemberCount(projectId));
+    /**
+     * Registers one WebSocket session. Only the first session of a user marks
+     * them online and joins their project sets; membership comes from the
+     * TranslatorService cache, so reconnects do not query the database.
+     */
+    public void addUser(String sessionId, User user) {
+        if (presenceStore.connect(user, sessionId)) {
+            updatePresence(user, translatorService.getProjectIds(user));
         }
     }
 
+    /**
+     * Adds an online user to a project they just joined and publishes an
+     * online delta for them, so the project presence topic shows the new
+     * member. Other nodes pick up the membership when the user reconnects.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTranslatorAdded(TranslatorAddedEvent event) {
+        clusterPresence.addProject(event.userId(), event.projectId(),
+                () -> publishPresence(clusterPresence.get(event.userId()), new long[] { event.projectId() }));
+    }
+
+    /**
+     * Unregisters one WebSocket session, the user goes offline when their last
+     * session closes. Repeated disconnect events for a session are ignored.
+     */
     @Transactional
-    public void removeUser(User user) {
-        OnlineUser onlineUser = users.get(user.getId());
-        if (onlineUser != null) {
-            onlineUser.updateLastOnline();
+    public void removeUser(String sessionId, User user) {
+        if (presenceStore.disconnect(user.getId(), sessionId)) {
+            updatePresence(user, translatorService.getProjectIds(user));
             updateLastOnline(user);
-            sendOnline(onlineUser);
         }
-        removeFromProjects(user);
     }
 
-    private void removeFromProjects(User user) {
-        List<Long> projectIds = translatorService.getProjectIds(user);
-        for (Long projectId : projectIds) {
-            Set<String> members = projects.get(projectId);
+    /**
+     * Applies the user's presence on this node to the cluster view. The state
+     * is read again under the lock, so when a connect and a disconnect race,
+     * the last update matches the store.
+     */
+    private void updatePresence(User user, Set<Long> projectIds) {
+        synchronized (presenceLock) {
+            Presence presence = presenceStore.get(user.getId());
+            boolean isOnline = presence != null && presence.isOnline();
+            OnlineUser onlineUser = presence != null ? presence.user()
+                    : new OnlineUser(user).withOffline(Instant.now());
+            clusterPresence.update(onlineUser, projectIds.stream().mapToLong(Long::longValue).toArray());
+            log.info("{} {} {} project chats", user.getEmail(), isOnline ? "joined" : "left", projectIds.size());
+        }
+        flushPresence();
+    }
+
+    /**
+     * Called by ClusterPresence when a user comes online on their first node
+     * or leaves their last. Queues the delta for the presence topic and for
+     * the presence topic of each of the user's projects, encoded once. The
+     * project index changes under the log lock, so a project snapshot and its
+     * version always agree. The frames go to the broker in flushPresence,
+     * after ClusterPresence releases its lock.
+     */
+    private void publishPresence(OnlineUser user, long[] projectIds) {
+        boolean isOnline = user.getIsOnline();
+        synchronized (presenceLog) {
+            PresenceDeltaDto delta = new PresenceDeltaDto(++presenceVersion, user.getId(), isOnline,
+                    user.getLastOnline(), isOnline ? user : null);
+            presenceLog.addLast(delta);
+            while (presenceLog.size() > presenceHistorySize) {
+                presenceLog.removeFirst();
+            }
+            byte[] body;
+            try {
+                body = objectMapper.writeValueAsBytes(delta);
+            } catch (JsonProcessingException e) {
+                log.error("Failed to encode presence of {}: {}", user.getId(), e.getMessage());
+                return;
+            }
+            presenceOutbox.add(new PresenceFrame(presenceTopic, jsonMessage(body)));
+            for (long projectId : projectIds) {
+                if (isOnline) {
+                    addMember(projectId, user.getId());
+                } else {
+                    removeMember(projectId, user.getId());
+                }
+                presenceOutbox.add(new PresenceFrame(getProjectPresenceTopic(projectId), jsonMessage(body)));
+            }
+        }
+    }
+
+    /**
+     * Sends queued presence frames without holding any presence lock. One
+     * thread sends at a time so frames keep their version order; a thread
+     * that finds another one sending leaves its frames to it, and the loop
+     * re-checks the queue after letting go so no frame is left behind.
+     */
+    private void flushPresence() {
+        while (!presenceOutbox.isEmpty() && isFlushingPresence.compareAndSet(false, true)) {
+            try {
+                PresenceFrame frame;
+                while ((frame = presenceOutbox.poll()) != null) {
+                    messagingTemplate.send(frame.destination(), frame.message());
+                }
+            } finally {
+                isFlushingPresence.set(false);
+            }
+        }
+    }
+
+    private String getProjectPresenceTopic(long projectId) {
+        return clusterPresence.getNodeTopic(WebSocketInterceptor.PROJECT_TOPIC + projectId + PRESENCE_SUFFIX);
+    }
+
+    private void addMember(long projectId, long userId) {
+        synchronized (projects) {
+            projects.computeIfAbsent(projectId, k -> new Roaring64Bitmap()).addLong(userId);
+        }
+    }
+
+    private void removeMember(long projectId, long userId) {
+        synchronized (projects) {
+            Roaring64Bitmap members = projects.get(projectId);
             if (members != null) {
-                members.remove(user.getEmail());
+                members.removeLong(userId);
                 if (members.isEmpty()) {
                     projects.remove(projectId);
                 }
-                log.info("{} left project chat: {}", user.getEmail(), projectId);
             }
         }
     }
 
-    private void updateLastOnline(User user) {
-        userRepository.updateLastOnline(user.getId(), Instant.now());
+    // Number of project members online anywhere in the cluster
+    public int getMemberCount(Long projectId) {
+        synchronized (projects) {
+            Roaring64Bitmap members = projects.get(projectId.longValue());
+            return members != null ? members.getIntCardinality() : 0;
+        }
     }
 
-    private int getMemberCount(Long projectId) {
-        Set<String> members = projects.get(projectId);
-        return members != null ? members.size() : 0;
+    public long[] getOnlineMembers(Long projectId) {
+        synchronized (projects) {
+            Roaring64Bitmap members = projects.get(projectId.longValue());
+            return members != null ? members.toArray() : new long[0];
+        }
     }
 
-    public List<OnlineUser> getUsers() {
-        return users.values().stream().toList();
+    public long getPresenceVersion() {
+        synchronized (presenceLog) {
+            return presenceVersion;
+        }
     }
 
-    public void sendToProject(Project project, ProjectMessage payload) {
-        Set<String> members = projects.get(project.getId());
-        if (members == null)
-            return;
+    /**
+     * Online members of a project with the version they are current at, built
+     * from the project index and the cluster view without touching the
+     * database. Deltas after the version arrive on the project presence topic.
+     */
+    public PresenceDto getProjectPresence(Long projectId) {
+        synchronized (presenceLog) {
+            List<OnlineUser> users = new ArrayList<>();
+            for (long userId : getOnlineMembers(projectId)) {
+                OnlineUser user = clusterPresence.get(userId);
+                if (user != null) {
+                    users.add(user);
+                }
+            }
+            return new PresenceDto(presenceVersion, true, users.size(), users, List.of());
+        }
+    }
 
-        for (String member : members) {
-            messagingTemplate.convertAndSendToUser(member, "/queue/message/project", payload);
+    /**
+     * Presence changes after the given version. A client subscribes to the
+     * presence topic first, then calls this and drops any delta it already has.
+     * When the version is missing or older than the kept history, the online
+     * users are returned as a snapshot instead. In a cluster versions belong
+     * to the node serving the socket, so this always returns a snapshot and
+     * clients resync through the snapshot subscription instead.
+     */
+    public PresenceDto getPresence(Long since) {
+        synchronized (presenceLog) {
+            PresenceDeltaDto oldest = presenceLog.peekFirst();
+            boolean isCovered = since != null && !clusterPresence.isClustered() && since <= presenceVersion
+                    && (since == presenceVersion || (oldest != null && oldest.version() <= since + 1));
+            if (!isCovered) {
+                List<OnlineUser> users = clusterPresence.getOnlineUsers();
+                return new PresenceDto(presenceVersion, true, users.size(), users, List.of());
+            }
+            List<PresenceDeltaDto> deltas = new ArrayList<>();
+            for (PresenceDeltaDto delta : presenceLog) {
+                if (delta.version() > since) {
+                    deltas.add(delta);
+                }
+            }
+            return new PresenceDto(presenceVersion, false, clusterPresence.getOnlineCount(), List.of(), deltas);
         }
     }
 
+    public boolean isOnline(Long userId) {
+        return clusterPresence.isOnline(userId);
+    }
+
+    private void updateLastOnline(User user) {
+        userRepository.updateLastOnline(user.getId(), Instant.now());
+    }
+
+    /**
+     * Publishes on the project topic, subscriptions are authorized by
+     * WebSocketInterceptor. The payload is encoded once here and the broker
+     * hands the same bytes to every subscribed session.
+     */
+    public void sendToProject(Project project, ProjectMessage payload) {
+        publish(WebSocketInterceptor.PROJECT_TOPIC + project.getId(), payload.getId(), payload);
+    }
+
     public void sendToUser(User sender, User recipient, PrivateMessage playload) {
         String recipientEmail = recipient.getEmail();
         String senderEmail = sender.getEmail();
@@ -117,19 +307,49 @@ public class MessageManager {
     }
 
     public void sendGlobal(GlobalMessage payload) {
-        messagingTemplate.convertAndSend("/topic/message/global", payload);
+        publish(GLOBAL_TOPIC, payload.getId(), payload);
     }
 
-    public void sendSystem(SystemMessage payload) {
-        messagingTemplate.convertAndSend("/topic/message/system", payload);
+    // Batchable topics are published only in the forms that have subscribers
+    private void publish(String destination, Long id, Object payload) {
+        boolean isBatchable = messageBatcher.isBatchable(destination);
+        boolean isSingle = !isBatchable || messageBatcher.hasSubscribers(destination);
+        boolean isBatched = isBatchable && messageBatcher.hasSubscribers(destination + MessageBatcher.BATCH_SUFFIX);
+        if (!isSingle && !isBatched) {
+            return;
+        }
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to encode message {} for {}: {}", id, destination, e.getMessage());
+            return;
+        }
+        if (isSingle) {
+            messagingTemplate.send(destination, jsonMessage(body));
+        }
+        if (isBatched) {
+            messageBatcher.add(destination, body);
+        }
+    }
+
+    static Message<byte[]> jsonMessage(byte[] body) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(body, accessor.getMessageHeaders());
     }
 
-    public void sendOnline(OnlineUser user) {
-        messagingTemplate.convertAndSend("/topic/message/online", Arrays.asList(user));
+    // Ephemeral events go straight to the broker, they are never stored, batched or replayed
+    public void sendEphemeral(String destination, Object payload) {
+        messagingTemplate.convertAndSend(destination, payload);
     }
 
-    @Scheduled(fixedRate = 2, timeUnit = TimeUnit.MINUTES)
-    public void sendOnlines() {
-        messagingTemplate.convertAndSend("/topic/message/online", users.values());
+    public void sendEphemeralToUser(String email, String destination, Object payload) {
+        messagingTemplate.convertAndSendToUser(email, destination, payload);
+    }
+
+    public void sendSystem(SystemMessage payload) {
+        messagingTemplate.convertAndSend("/topic/message/system", payload);
     }
 }
@@ -0,0 +1,284 @@
+package mfy.server.domain.message.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import mfy.server.domain.message.entity.type.MessageType;
+
+/**
+ * Monthly range partitioning of the message tables on created_at, plus
+ * retention. Hibernate still creates the tables; on startup any plain table is
+ * converted in place to a partitioned one with a (id, created_at) primary key,
+ * keeping its sequence, indexes, foreign keys and check constraints. The
+ * conversion copies the whole table under an exclusive lock, so sends to that
+ * channel type wait until it finishes; tables above max-convert-rows are left
+ * alone and must be converted in a maintenance window. Rows outside every
+ * monthly range land in a default partition, which the daily job reports. That
+ * job also creates upcoming partitions and detaches or drops the ones older
+ * than the retention of their channel type.
+ */
+@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Service
+public class MessagePartitionService implements CommandLineRunner {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final Map<MessageType, String> TABLES = Map.of(
+            MessageType.SYSTEM, "systemmessages",
+            MessageType.GLOBAL, "globalmessages",
+            MessageType.PROJECT, "projectmessages",
+            MessageType.PRIVATE, "privatemessages");
+
+    @Value("${server.config.message.partition.enabled:false}")
+    private boolean isEnabled;
+
+    @Value("${server.config.message.partition.premake-months:2}")
+    private int premakeMonths;
+
+    // Startup conversion blocks the table while it copies, larger tables must be converted offline
+    @Value("${server.config.message.partition.max-convert-rows:1000000}")
+    private long maxConvertRows;
+
+    // How long the conversion waits for the table lock before giving up
+    @Value("${server.config.message.partition.lock-timeout:10s}")
+    private String lockTimeout;
+
+    // Drop expired partitions when true, otherwise only detach them for archival
+    @Value("${server.config.message.partition.drop-expired:false}")
+    private boolean isDropExpired;
+
+    // Retention in days per channel type, 0 keeps messages forever
+    @Value("${server.config.message.retention-days.system:0}")
+    private int systemRetentionDays;
+
+    @Value("${server.config.message.retention-days.global:90}")
+    private int globalRetentionDays;
+
+    @Value("${server.config.message.retention-days.project:0}")
+    private int projectRetentionDays;
+
+    @Value("${server.config.message.retention-days.private:0}")
+    private int privateRetentionDays;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public MessagePartitionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!isEnabled) {
+            return;
+        }
+        for (String table : TABLES.values()) {
+            if (isPartitioned(table)) {
+                continue;
+            }
+            long rows = estimateRows(table);
+            if (rows > maxConvertRows) {
+                log.error("Not partitioning {}: about {} rows is above max-convert-rows {}, the copy would block"
+                        + " sends for too long. Convert it in a maintenance window.", table, rows, maxConvertRows);
+                continue;
+            }
+            log.warn("Partitioning {}: copying about {} rows under an exclusive lock, sends to it wait until done",
+                    table, rows);
+            transactionTemplate.executeWithoutResult(status -> convert(table));
+        }
+        maintain();
+    }
+
+    @Scheduled(cron = "${server.config.message.partition.cron:0 30 3 * * *}", zone = "UTC")
+    public void maintain() {
+        if (!isEnabled) {
+            return;
+        }
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        TABLES.forEach((type, table) -> {
+            try {
+                if (!isPartitioned(table)) {
+                    return;
+                }
+                for (int i = 0; i <= premakeMonths; i++) {
+                    createPartition(table, current.plusMonths(i));
+                }
+                expire(table, getRetentionDays(type));
+                checkDefaultPartition(table);
+            } catch (Exception e) {
+                log.error("Failed to maintain partitions of {}: {}", table, e.getMessage());
+            }
+        });
+    }
+
+    private int getRetentionDays(MessageType type) {
+        return switch (type) {
+            case SYSTEM -> systemRetentionDays;
+            case GLOBAL -> globalRetentionDays;
+            case PROJECT -> projectRetentionDays;
+            case PRIVATE -> privateRetentionDays;
+        };
+    }
+
+    private boolean isPartitioned(String table) {
+        String kind = jdbcTemplate.queryForObject(
+                "SELECT c.relkind::text FROM pg_class c WHERE c.oid = to_regclass(?)", String.class, table);
+        return "p".equals(kind);
+    }
+
+    private long estimateRows(String table) {
+        Long rows = jdbcTemplate.queryForObject(
+                "SELECT greatest(c.reltuples, 0)::bigint FROM pg_class c WHERE c.oid = to_regclass(?)", Long.class,
+                table);
+        return rows != null ? rows : 0;
+    }
+
+    private void convert(String table) {
+        String legacy = table + "_legacy";
+        String sequence = table + "_id_seq";
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '" + lockTimeout.replace("'", "") + "'");
+        jdbcTemplate.execute("LOCK TABLE " + table + " IN ACCESS EXCLUSIVE MODE");
+
+        // A partitioned table can only be referenced through its whole primary key
+        List<String> referencing = jdbcTemplate.queryForList("""
+                SELECT c.conrelid::regclass::text FROM pg_constraint c
+                WHERE c.contype = 'f' AND c.confrelid = to_regclass(?)
+                """, String.class, table);
+        if (!referencing.isEmpty()) {
+            throw new IllegalStateException(table + " is referenced by " + referencing + ", cannot partition it");
+        }
+        // LIKE copies neither foreign keys nor check constraints, they are added back by definition
+        List<Map<String, Object>> constraints = jdbcTemplate.queryForList("""
+                SELECT c.conname AS name, pg_get_constraintdef(c.oid) AS definition FROM pg_constraint c
+                WHERE c.conrelid = to_regclass(?) AND c.contype IN ('f', 'c')
+                ORDER BY c.conname
+                """, table);
+        Long maxId = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM " + table, Long.class);
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT min(created_at) FROM " + table, Timestamp.class);
+        List<String> indexes = jdbcTemplate.queryForList("""
+                SELECT i.indexdef FROM pg_indexes i
+                WHERE i.tablename = ? AND i.indexname <> ?
+                """, String.class, table, table + "_pkey");
+
+        // Dropping the identity also drops its sequence, ids continue from a plain sequence instead
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence);
+        jdbcTemplate.queryForObject("SELECT setval(CAST(? AS regclass), ?, false)", Long.class, sequence,
+                maxId + 1);
+        jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + legacy);
+        jdbcTemplate.execute("ALTER TABLE " + legacy + " DROP CONSTRAINT IF EXISTS " + table + "_pkey");
+        jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE " + legacy + " INCLUDING DEFAULTS INCLUDING GENERATED)"
+                + " PARTITION BY RANGE (created_at)");
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT nextval('" + sequence + "')");
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " OWNED BY " + table + ".id");
+        jdbcTemplate.execute("ALTER TABLE " + table + " ADD PRIMARY KEY (id, created_at)");
+        for (Map<String, Object> constraint : constraints) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD CONSTRAINT " + constraint.get("name") + " "
+                    + constraint.get("definition"));
+        }
+        jdbcTemplate.execute("CREATE TABLE " + table + "_default PARTITION OF " + table + " DEFAULT");
+
+        YearMonth month = oldest != null ? YearMonth.from(oldest.toInstant().atZone(ZoneOffset.UTC))
+                : YearMonth.now(ZoneOffset.UTC);
+        YearMonth last = YearMonth.now(ZoneOffset.UTC).plusMonths(premakeMonths);
+        for (; !month.isAfter(last); month = month.plusMonths(1)) {
+            createPartition(table, month);
+        }
+        // Generated columns are recomputed by the partitioned table and cannot be copied
+        String columns = jdbcTemplate.queryForObject("""
+                SELECT string_agg(quote_ident(a.attname), ', ' ORDER BY a.attnum) FROM pg_attribute a
+                WHERE a.attrelid = to_regclass(?) AND a.attnum > 0 AND NOT a.attisdropped AND a.attgenerated = ''
+                """, String.class, legacy);
+        jdbcTemplate.execute("INSERT INTO " + table + " (" + columns + ") SELECT " + columns + " FROM " + legacy);
+        jdbcTemplate.execute("DROP TABLE " + legacy);
+
+        // Indexes created on the parent are created on every partition, current and future
+        for (String index : indexes) {
+            jdbcTemplate.execute(index);
+        }
+        log.info("Converted {} to monthly partitions", table);
+    }
+
+    // Rows here match no monthly range, and block creating the partition that would hold them
+    private void checkDefaultPartition(String table) {
+        if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NULL", Boolean.class, table + "_default")) {
+            jdbcTemplate.execute("CREATE TABLE " + table + "_default PARTITION OF " + table + " DEFAULT");
+            return;
+        }
+        Long rows = jdbcTemplate.queryForObject("SELECT count(*) FROM " + table + "_default", Long.class);
+        if (rows > 0) {
+            log.error("{} rows of {} are outside every monthly partition, move them before the matching month"
+                    + " is created", rows, table);
+        }
+    }
+
+    private void createPartition(String table, YearMonth month) {
+        Instant from = month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant to = month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(table, month)
+                + " PARTITION OF " + table + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+
+    private void expire(String table, int retentionDays) {
+        if (retentionDays <= 0) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(retentionDays, ChronoUnit.DAYS);
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = to_regclass(?)
+                ORDER BY c.relname
+                """, String.class, table);
+        for (String partition : partitions) {
+            YearMonth month = parseMonth(table, partition);
+            if (month == null) {
+                continue;
+            }
+            // A partition expires once its newest possible row is past the cutoff
+            Instant end = month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            if (!end.isAfter(cutoff)) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+                if (isDropExpired) {
+                    jdbcTemplate.execute("DROP TABLE " + partition);
+                }
+                log.info("{} expired partition {}", isDropExpired ? "Dropped" : "Detached", partition);
+            }
+        }
+    }
+
+    private String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(SUFFIX);
+    }
+
+    private YearMonth parseMonth(String table, String partition) {
+        String prefix = table + "_p";
+        if (!partition.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(prefix.length()), SUFFIX);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
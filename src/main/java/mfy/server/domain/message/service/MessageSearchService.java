@@ -0,0 +1,154 @@
+package mfy.server.domain.message.service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mfy.server.domain.message.dto.MessageResponseDto.MessageHitDto;
+import mfy.server.domain.message.entity.type.MessageType;
+import mfy.server.domain.message.service.type.MessageCursor;
+
+/**
+ * Full-text search over the generated fulltext column of the message tables.
+ * Matches are paged newest first on (created_at, id), so every page reaches
+ * further back and a message sent between pages cannot shift the ones not
+ * yet seen. Postgres either walks the channel's (created_at, id) index and
+ * checks each row against the query, or collects the matches through the GIN
+ * index and sorts them, whichever its statistics find cheaper for the words.
+ * Rank and highlights are computed for the returned page only.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@Service
+public class MessageSearchService implements CommandLineRunner {
+
+    private static final String HEADLINE_OPTIONS = "StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=20";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Table, scope column and the columns returned for each channel type
+    private record Scope(String table, String scopeColumn, String senderId, String recipientId,
+            String projectId) {
+    }
+
+    private static Scope getScope(MessageType type) {
+        return switch (type) {
+            case SYSTEM -> new Scope("systemmessages", null, "NULL", "NULL", "NULL");
+            case GLOBAL -> new Scope("globalmessages", null, "m.sender_id", "NULL", "NULL");
+            case PROJECT -> new Scope("projectmessages", "project_id", "m.sender_id", "NULL", "m.project_id");
+            case PRIVATE -> new Scope("privatemessages", "pair_id", "m.sender_id", "m.recipient_id", "NULL");
+        };
+    }
+
+    // Runs without a transaction, CONCURRENTLY builds the index without blocking sends
+    @Override
+    public void run(String... args) {
+        for (MessageType type : MessageType.values()) {
+            String table = getScope(type).table();
+            try {
+                if (isPartitioned(table)) {
+                    createPartitionedIndex(table);
+                } else {
+                    createIndex(table);
+                }
+            } catch (Exception e) {
+                log.error("Failed to create the fulltext index of {}: {}", table, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isPartitioned(String table) {
+        String kind = jdbcTemplate.queryForObject(
+                "SELECT c.relkind::text FROM pg_class c WHERE c.oid = to_regclass(?)", String.class, table);
+        return "p".equals(kind);
+    }
+
+    private void createIndex(String table) {
+        String index = table + "_fulltext_idx";
+        // A failed concurrent build leaves an invalid index behind that IF NOT EXISTS would keep
+        Boolean isValid = jdbcTemplate.query("SELECT i.indisvalid FROM pg_index i WHERE i.indexrelid = to_regclass(?)",
+                rs -> rs.next() ? rs.getBoolean(1) : null, index);
+        if (Boolean.FALSE.equals(isValid)) {
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + index);
+        }
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + index + " ON " + table
+                + " USING gin (fulltext)");
+    }
+
+    // Partitioned tables cannot build concurrently, so each partition is indexed and attached to the parent index
+    private void createPartitionedIndex(String table) {
+        String index = table + "_fulltext_idx";
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + index + " ON ONLY " + table + " USING gin (fulltext)");
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = to_regclass(?)
+                """, String.class, table);
+        for (String partition : partitions) {
+            createIndex(partition);
+            jdbcTemplate.execute("ALTER INDEX " + index + " ATTACH PARTITION " + partition + "_fulltext_idx");
+        }
+    }
+
+    /**
+     * One page of matches, newest first from before the cursor. Rank and
+     * highlight are computed for the page rows only.
+     */
+    public List<MessageHitDto> search(MessageType type, Long scopeId, String keywords, MessageCursor cursor,
+            int limit) {
+        Scope scope = getScope(type);
+        List<Object> params = new ArrayList<Object>();
+        params.add(keywords);
+
+        StringBuilder filter = new StringBuilder();
+        if (scope.scopeColumn() != null) {
+            filter.append(" AND m.").append(scope.scopeColumn()).append(" = ?");
+            params.add(scopeId);
+        }
+        if (cursor != null) {
+            filter.append(" AND (m.created_at, m.id) < (?, ?)");
+            params.add(Timestamp.from(cursor.createdAt()));
+            params.add(cursor.id());
+        }
+        params.add(limit);
+
+        String sql = """
+                WITH q AS (SELECT websearch_to_tsquery('simple', ?) AS query),
+                page AS (
+                    SELECT m.id, m.created_at
+                    FROM %1$s m, q
+                    WHERE m.fulltext @@ q.query AND NOT m.is_deleted%2$s
+                    ORDER BY m.created_at DESC, m.id DESC
+                    LIMIT ?
+                )
+                SELECT m.id, m.content, m.created_at, %3$s AS sender_id, %4$s AS recipient_id,
+                    %5$s AS project_id, ts_rank(m.fulltext, q.query) AS rank,
+                    ts_headline('simple', m.content, q.query, '%6$s') AS highlight
+                FROM page p
+                JOIN %1$s m ON m.id = p.id AND m.created_at = p.created_at
+                CROSS JOIN q
+                ORDER BY p.created_at DESC, p.id DESC
+                """.formatted(scope.table(), filter, scope.senderId(), scope.recipientId(), scope.projectId(),
+                HEADLINE_OPTIONS);
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new MessageHitDto(
+                type,
+                rs.getLong("id"),
+                rs.getString("content"),
+                rs.getString("highlight"),
+                rs.getTimestamp("created_at").toInstant(),
+                rs.getObject("sender_id", Long.class),
+                rs.getObject("recipient_id", Long.class),
+                rs.getObject("project_id", Long.class),
+                rs.getFloat("rank")), params.toArray());
+    }
+}
@@ -3,58 +3,84 @@ package mfy.server.domain.message.service;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.Cache;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import mfy.server.domain.message.dto.MessageRequestDto.AttachtmentRequestDto;
 import mfy.server.domain.message.dto.MessageRequestDto.DownloadAttachmentDto;
+import mfy.server.domain.message.dto.MessageRequestDto.GetMessagesRequestDto;
+import mfy.server.domain.message.dto.MessageRequestDto.ReadMessagesRequestDto;
+import mfy.server.domain.message.dto.MessageRequestDto.ResumeChannelDto;
+import mfy.server.domain.message.dto.MessageRequestDto.ResumeRequestDto;
+import mfy.server.domain.message.dto.MessageRequestDto.SearchMessagesRequestDto;
 import mfy.server.domain.message.dto.MessageRequestDto.SendMessageRequestDto;
 import mfy.server.domain.message.dto.MessageRequestDto.UpdateAttachmentDto;
 import mfy.server.domain.message.dto.MessageRequestDto.UpdateAttachmentsDto;
-import mfy.server.domain.message.dto.MessageResponseDto.GetMessageResponseDto;
+import mfy.server.domain.message.dto.MessageResponseDto.GetUnreadResponseDto;
+import mfy.server.domain.message.dto.MessageResponseDto.GetMessageWindowResponseDto;
 import mfy.server.domain.message.dto.MessageResponseDto.GlobalMessageDto;
+import mfy.server.domain.message.dto.MessageResponseDto.IMessageKey;
+import mfy.server.domain.message.dto.MessageResponseDto.MessageHitDto;
+import mfy.server.domain.message.dto.MessageResponseDto.MessageResponse;
+import mfy.server.domain.message.dto.MessageResponseDto.PresenceDto;
 import mfy.server.domain.message.dto.MessageResponseDto.PrivateMessageDto;
 import mfy.server.domain.message.dto.MessageResponseDto.ProjectMessageDto;
+import mfy.server.domain.message.dto.MessageResponseDto.ResumeResponseDto;
+import mfy.server.domain.message.dto.MessageResponseDto.ResumedChannelDto;
+import mfy.server.domain.message.dto.MessageResponseDto.SearchMessagesResponseDto;
 import mfy.server.domain.message.dto.MessageResponseDto.SystemMessageDto;
+import mfy.server.domain.message.dto.MessageResponseDto.UnreadChannelDto;
+import mfy.server.domain.message.entity.ChannelSequence;
 import mfy.server.domain.message.entity.PrivateMessage;
 import mfy.server.domain.message.entity.ProjectMessage;
 import mfy.server.domain.message.entity.GlobalMessage;
 import mfy.server.domain.message.entity.SystemMessage;
 import mfy.server.domain.message.entity.type.Attachment;
+import mfy.server.domain.message.entity.type.MessageBase;
 import mfy.server.domain.message.entity.type.MessageType;
+import mfy.server.domain.message.event.MessageEvent.GlobalMessageEvent;
+import mfy.server.domain.message.event.MessageEvent.PrivateMessageEvent;
+import mfy.server.domain.message.event.MessageEvent.ProjectMessageEvent;
+import mfy.server.domain.message.event.MessageEvent.SystemMessageEvent;
 import mfy.server.domain.message.repository.PrivateMessageRepository;
 import mfy.server.domain.message.repository.ProjectMessageRepository;
 import mfy.server.domain.message.repository.GlobalMessageRepository;
 import mfy.server.domain.message.repository.SystemMessageRepository;
-import mfy.server.domain.message.service.type.OnlineUser;
-import mfy.server.domain.project.dto.ProjectResponseDto.IProjectBasicDto;
+import mfy.server.domain.message.service.type.MessageCursor;
+import mfy.server.domain.message.service.type.MessageTail;
+import mfy.server.domain.message.service.type.ScrollDirection;
 import mfy.server.domain.project.entity.Project;
 import mfy.server.domain.project.repository.ProjectRepository;
 import mfy.server.domain.project.service.TranslatorService;
-import mfy.server.domain.user.dto.UserResponseDto.IUserBasicDto;
 import mfy.server.domain.user.entity.User;
 import mfy.server.domain.user.entity.type.Role;
 import mfy.server.domain.user.repository.UserRepository;
 import mfy.server.global.exception.BusinessException;
 import mfy.server.global.exception.ErrorConfig.ErrorMessage;
+import mfy.server.global.service.BasicInfoLoader;
 import mfy.server.global.service.S3Service;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 
 @Slf4j
@@ -62,6 +88,9 @@ import org.springframework.http.HttpStatus;
 @RequiredArgsConstructor
 public class MessageService {
     private static final int PAGE_SIZE = 10;
+    private static final int UNREAD_PREVIEW_SIZE = 3;
+    private static final int SEARCH_PAGE_SIZE = 20;
+    private static final int RESUME_LIMIT = 100;
     private static final int MAX_ATTACHMENT_TOTAL_SIZE = 15 * 1024 * 1024;
     private static final int MAX_ATTACHMENT_UPLOAD_COUNT = 5;
 
@@ -74,78 +103,230 @@ public class MessageService {
     private final UserRepository userRepository;
     private final ProjectRepository projectRepository;
     private final MessageManager messageManager;
+    private final MessageWriter messageWriter;
+    private final UnreadService unreadService;
+    private final MessageTails messageTails;
+    private final BasicInfoLoader basicInfoLoader;
+    private final MessageSearchService messageSearchService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChannelSequencer channelSequencer;
+    private final TransactionTemplate transactionTemplate;
 
     @Qualifier("systemMessagesCache")
     @Autowired
     private Cache systemMessagesCache;
 
-    private <T> GetMessageResponseDto<T> getMessages(Pageable pageable, Page<T> result) {
-        List<T> messages = result.toList();
-        int totalPage = result.getTotalPages();
-        int page = pageable.getPageNumber();
-        var responseDto = new GetMessageResponseDto<T>(page, messages, totalPage);
-        addUsersAndProjects(responseDto);
+    private <T extends IMessageKey> GetMessageWindowResponseDto<T> getWindow(List<T> rows, boolean isForward,
+            boolean hasAnchor) {
+        boolean hasMore = rows.size() > PAGE_SIZE;
+        List<T> messages = new ArrayList<T>(hasMore ? rows.subList(0, PAGE_SIZE) : rows);
+        if (!isForward) {
+            Collections.reverse(messages);
+        }
+
+        String prevCursor = null;
+        String nextCursor = null;
+        if (messages.size() > 0) {
+            MessageCursor first = MessageCursor.of(messages.get(0));
+            MessageCursor last = MessageCursor.of(messages.get(messages.size() - 1));
+            if (isForward) {
+                prevCursor = hasAnchor ? first.encode() : null;
+                nextCursor = hasMore ? last.encode() : null;
+            } else {
+                prevCursor = hasMore ? first.encode() : null;
+                nextCursor = hasAnchor ? last.encode() : null;
+            }
+        }
+
+        var responseDto = new GetMessageWindowResponseDto<T>(messages, prevCursor, nextCursor);
+        addUsersAndProjects(responseDto, messages);
         return responseDto;
     }
 
-    private <T> void addUsersAndProjects(GetMessageResponseDto<T> responseDto) {
+    // Serves a keyset read from the channel tail when it covers the range, otherwise from the repository
+    private <T extends IMessageKey> List<T> getRows(MessageTail<T> tail, MessageCursor cursor, boolean isForward,
+            int limit, Function<Pageable, List<T>> findLatest,
+            BiFunction<MessageCursor, Pageable, List<T>> findBefore,
+            BiFunction<MessageCursor, Pageable, List<T>> findAfter) {
+        if (messageTails.isEnabled() && !tail.isLoaded()) {
+            List<T> latest = findLatest.apply(PageRequest.ofSize(tail.getCapacity()));
+            tail.load(latest, latest.size() < tail.getCapacity());
+        }
+        List<T> rows = tail.read(cursor, isForward, limit);
+        if (rows != null) {
+            return rows;
+        }
+
+        Pageable pageable = PageRequest.ofSize(limit);
+        if (cursor == null) {
+            return findLatest.apply(pageable);
+        } else if (isForward) {
+            return findAfter.apply(cursor, pageable);
+        }
+        return findBefore.apply(cursor, pageable);
+    }
+
+    private MessageCursor getCursor(GetMessagesRequestDto requestDto) {
+        if (requestDto.getAt() != null) {
+            return MessageCursor.seek(requestDto.getAt());
+        }
+        if (requestDto.getCursor() == null) {
+            // Reading forward without an anchor starts at the oldest message
+            return requestDto.getDirection() == ScrollDirection.AFTER ? MessageCursor.seek(Instant.EPOCH) : null;
+        }
+        return MessageCursor.decode(requestDto.getCursor());
+    }
+
+    private boolean hasAnchor(GetMessagesRequestDto requestDto) {
+        return requestDto.getCursor() != null || requestDto.getAt() != null;
+    }
+
+    private boolean isForward(GetMessagesRequestDto requestDto) {
+        return requestDto.getAt() != null || requestDto.getDirection() == ScrollDirection.AFTER;
+    }
+
+    private <T> void addUsersAndProjects(MessageResponse responseDto, List<T> messages) {
         Set<Long> projectIds = new HashSet<Long>();
         Set<Long> userIds = new HashSet<Long>();
-        List<IProjectBasicDto> projects = new ArrayList<IProjectBasicDto>();
-        List<IUserBasicDto> users = new ArrayList<IUserBasicDto>();
 
-        getUsersAndProjects(userIds, projectIds, responseDto.getMessages());
-        if (userIds.size() > 0)
-            users = userRepository.findInIds(userIds);
-        if (projectIds.size() > 0)
-            projects = projectRepository.findInIds(projectIds);
-
-        responseDto.setUsers(users);
-        responseDto.setProjects(projects);
+        getUsersAndProjects(userIds, projectIds, messages);
+        responseDto.setUsers(basicInfoLoader.getUsers(userIds));
+        responseDto.setProjects(basicInfoLoader.getProjects(projectIds));
     }
 
     private <T> void getUsersAndProjects(Set<Long> userIds, Set<Long> projectIds, List<T> messages) {
-        if (messages.size() <= 0)
-            return;
-        T firstMessagge = messages.get(0);
-        if (firstMessagge instanceof GlobalMessageDto) {
-            for (T message : messages) {
-                userIds.add(((GlobalMessageDto) message).senderId());
+        for (T message : messages) {
+            if (message instanceof GlobalMessageDto globalMessage) {
+                userIds.add(globalMessage.senderId());
+            } else if (message instanceof ProjectMessageDto projectMessage) {
+                projectIds.add(projectMessage.projectId());
+                userIds.add(projectMessage.senderId());
+            } else if (message instanceof PrivateMessageDto privateMessage) {
+                userIds.add(privateMessage.senderId());
+                userIds.add(privateMessage.recipientId());
+            } else if (message instanceof MessageHitDto hit) {
+                if (hit.senderId() != null)
+                    userIds.add(hit.senderId());
+                if (hit.recipientId() != null)
+                    userIds.add(hit.recipientId());
+                if (hit.projectId() != null)
+                    projectIds.add(hit.projectId());
             }
-        } else if (firstMessagge instanceof ProjectMessageDto) {
-            projectIds.add(((ProjectMessageDto) firstMessagge).projectId());
-            for (T message : messages) {
-                userIds.add(((ProjectMessageDto) message).senderId());
+        }
+    }
+
+    public GetUnreadResponseDto getUnreadMessages(User user) {
+        List<UnreadChannelDto> channels = new ArrayList<UnreadChannelDto>();
+        List<Object> messages = new ArrayList<Object>();
+        for (UnreadChannelDto channel : unreadService.getUnreadChannels(user)) {
+            List<?> preview = getUnreadPreview(user, channel);
+            messages.addAll(preview);
+            channels.add(channel.withMessages(preview));
+        }
+
+        var responseDto = new GetUnreadResponseDto(channels);
+        addUsersAndProjects(responseDto, messages);
+        return responseDto;
+    }
+
+    private List<?> getUnreadPreview(User user, UnreadChannelDto channel) {
+        int limit = (int) Math.min(channel.count(), UNREAD_PREVIEW_SIZE);
+        Long channelId = channel.channelId();
+        List<?> messages = switch (channel.type()) {
+            case SYSTEM -> getLatest(messageTails.system(), limit, systemMessageRepository::findLatest);
+            case GLOBAL -> getLatest(messageTails.global(), limit, globalMessageRepository::findLatest);
+            case PROJECT -> getLatest(messageTails.project(channelId), limit,
+                    p -> projectMessageRepository.findLatest(channelId, p));
+            case PRIVATE -> {
+                Long pairId = PrivateMessage.calcPairId(user.getId(), channelId);
+                yield getLatest(messageTails.pair(pairId), limit, p -> privateMessageRepository.findLatest(pairId, p));
             }
-        } else if (firstMessagge instanceof PrivateMessageDto) {
-            userIds.add(((PrivateMessageDto) firstMessagge).senderId());
-            userIds.add(((PrivateMessageDto) firstMessagge).recipientId());
+        };
+        List<?> preview = new ArrayList<>(messages);
+        Collections.reverse(preview);
+        return preview;
+    }
+
+    // Newest messages from a warm tail, otherwise one indexed read of just the preview without loading the tail
+    private <T extends IMessageKey> List<T> getLatest(MessageTail<T> tail, int limit,
+            Function<Pageable, List<T>> findLatest) {
+        List<T> rows = tail.read(null, false, limit);
+        if (rows != null) {
+            return rows;
         }
+        return findLatest.apply(PageRequest.ofSize(limit));
     }
 
-    @Transactional
-    public GetMessageResponseDto<Object> getUnreadMessages(User user) {
-        Instant lastOnline = user.getLastOnline();
-        List<GlobalMessageDto> globalMessages = globalMessageRepository.findBySenderAndCreatedAtGreaterThan(user,
-                lastOnline);
-        List<SystemMessageDto> systemMessages = systemMessageRepository.findByCreatedAtGreaterThan(lastOnline);
-        List<PrivateMessageDto> privateMessages = privateMessageRepository.findByRecipientAndCreatedAtGreaterThan(user,
-                lastOnline);
-        List<Project> projects = translatorService.getProjects(user);
-        List<ProjectMessageDto> projectMessages = projectMessageRepository
-                .findByProjectInAndCreatedAtGreaterThan(projects, lastOnline);
-        List<Object> messages = Stream.of(globalMessages, systemMessages, privateMessages, projectMessages)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
-
-        var responseDto = new GetMessageResponseDto<>(0, messages, 0);
-        addUsersAndProjects(responseDto);
-        updateLastOnline(user);
+    public ResumeResponseDto resume(User user, ResumeRequestDto requestDto) {
+        Set<Long> projectIds = null;
+        List<ResumedChannelDto> channels = new ArrayList<ResumedChannelDto>();
+        List<Object> messages = new ArrayList<Object>();
+        for (ResumeChannelDto channel : requestDto.getChannels()) {
+            MessageType type = channel.getMessageType();
+            Long channelId = channel.getChannelId();
+            long seq = channel.getSeq();
+            if (channelId == null && (type == MessageType.PROJECT || type == MessageType.PRIVATE)) {
+                throw new BusinessException(HttpStatus.BAD_REQUEST, ErrorMessage.INVALID_PAYLOAD);
+            }
+            List<?> rows = switch (type) {
+                case SYSTEM -> getSince(messageTails.system(), seq, systemMessageRepository::findSince);
+                case GLOBAL -> getSince(messageTails.global(), seq, globalMessageRepository::findSince);
+                case PROJECT -> {
+                    if (projectIds == null) {
+                        projectIds = translatorService.getProjectIds(user);
+                    }
+                    if (!projectIds.contains(channelId)) {
+                        throw new BusinessException(HttpStatus.FORBIDDEN, ErrorMessage.MEMBER_ONLY);
+                    }
+                    yield getSince(messageTails.project(channelId), seq,
+                            (s, p) -> projectMessageRepository.findSince(channelId, s, p));
+                }
+                case PRIVATE -> {
+                    Long pairId = PrivateMessage.calcPairId(user.getId(), channelId);
+                    yield getSince(messageTails.pair(pairId), seq,
+                            (s, p) -> privateMessageRepository.findSince(pairId, s, p));
+                }
+            };
+            boolean hasMore = rows.size() > RESUME_LIMIT;
+            List<?> missed = hasMore ? rows.subList(0, RESUME_LIMIT) : rows;
+            messages.addAll(missed);
+            channels.add(new ResumedChannelDto(type, channelId, hasMore, missed));
+        }
+
+        var responseDto = new ResumeResponseDto(channels);
+        addUsersAndProjects(responseDto, messages);
         return responseDto;
     }
 
-    public List<OnlineUser> getOnlineUsers() {
-        return messageManager.getUsers();
+    // Gap after the client's last sequence number, from the channel tail when it reaches back that far
+    private <T extends IMessageKey> List<T> getSince(MessageTail<T> tail, long seq,
+            BiFunction<Long, Pageable, List<T>> findSince) {
+        List<T> rows = tail.readSince(seq, RESUME_LIMIT + 1);
+        if (rows != null) {
+            return rows;
+        }
+        return findSince.apply(seq, PageRequest.ofSize(RESUME_LIMIT + 1));
+    }
+
+    // Project reads are limited to members, so counters are only kept for the caller's own channels
+    public void markRead(User user, ReadMessagesRequestDto requestDto) {
+        MessageType type = requestDto.getMessageType();
+        Long channelId = requestDto.getChannelId();
+        if (channelId == null && (type == MessageType.PROJECT || type == MessageType.PRIVATE)) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, ErrorMessage.INVALID_PAYLOAD);
+        }
+        if (type == MessageType.PROJECT && !translatorService.isMember(channelId, user.getId())) {
+            throw new BusinessException(HttpStatus.FORBIDDEN, ErrorMessage.MEMBER_ONLY);
+        }
+        unreadService.markRead(user, type, channelId);
+    }
+
+    public PresenceDto getPresence(Long since) {
+        return messageManager.getPresence(since);
+    }
+
+    public PresenceDto getProjectPresence(Long projectId) {
+        return messageManager.getProjectPresence(projectId);
     }
 
     @Cacheable(value = "SystemMessages", key = "'getTodaySystemMessages'", cacheManager = "caffeinCacheManager")
@@ -155,34 +336,83 @@ public class MessageService {
                 today.minus(1, ChronoUnit.DAYS));
     }
 
-    @Cacheable(value = "SystemMessages", key = "#page", unless = "#result.page != #result.totalPage - 1", cacheManager = "caffeinCacheManager")
-    public GetMessageResponseDto<SystemMessageDto> getSystemMessages(int page) {
-        Pageable pageable = PageRequest.of(Math.max(page - 1, 0), PAGE_SIZE, Sort.Direction.ASC, "createdAt");
-        var result = systemMessageRepository.findAllBy(pageable);
-        return getMessages(pageable, result);
+    public GetMessageWindowResponseDto<SystemMessageDto> getSystemMessages(GetMessagesRequestDto requestDto) {
+        MessageCursor cursor = getCursor(requestDto);
+        boolean isForward = isForward(requestDto);
+        List<SystemMessageDto> rows = getRows(messageTails.system(), cursor, isForward, PAGE_SIZE + 1,
+                systemMessageRepository::findLatest,
+                (c, p) -> systemMessageRepository.findBefore(c.createdAt(), c.id(), p),
+                (c, p) -> systemMessageRepository.findAfter(c.createdAt(), c.id(), p));
+        return getWindow(rows, isForward, hasAnchor(requestDto));
     }
 
-    @Cacheable(value = "GlobalMessages", key = "#page", unless = "#result.page != #result.totalPage - 1", cacheManager = "caffeinCacheManager")
-    public GetMessageResponseDto<GlobalMessageDto> getGlobalMessages(int page) {
-        Pageable pageable = PageRequest.of(Math.max(page - 1, 0), PAGE_SIZE, Sort.Direction.ASC, "createdAt");
-        var result = globalMessageRepository.findAllBy(pageable);
-        return getMessages(pageable, result);
+    public GetMessageWindowResponseDto<GlobalMessageDto> getGlobalMessages(GetMessagesRequestDto requestDto) {
+        MessageCursor cursor = getCursor(requestDto);
+        boolean isForward = isForward(requestDto);
+        List<GlobalMessageDto> rows = getRows(messageTails.global(), cursor, isForward, PAGE_SIZE + 1,
+                globalMessageRepository::findLatest,
+                (c, p) -> globalMessageRepository.findBefore(c.createdAt(), c.id(), p),
+                (c, p) -> globalMessageRepository.findAfter(c.createdAt(), c.id(), p));
+        return getWindow(rows, isForward, hasAnchor(requestDto));
     }
 
-    @Cacheable(value = "PrivateMessages", key = "#pairId + ':' + #page", unless = "#result.page != #result.totalPage - 1", cacheManager = "caffeinCacheManager")
-    public GetMessageResponseDto<PrivateMessageDto> getPrivateMessages(Long pairId, int page) {
-        Pageable pageable = PageRequest.of(Math.max(page - 1, 0), PAGE_SIZE, Sort.Direction.ASC, "createdAt");
-        var result = privateMessageRepository.findAllByPairId(pairId, pageable);
-        return getMessages(pageable, result);
+    public GetMessageWindowResponseDto<PrivateMessageDto> getPrivateMessages(Long pairId,
+            GetMessagesRequestDto requestDto) {
+        MessageCursor cursor = getCursor(requestDto);
+        boolean isForward = isForward(requestDto);
+        List<PrivateMessageDto> rows = getRows(messageTails.pair(pairId), cursor, isForward, PAGE_SIZE + 1,
+                p -> privateMessageRepository.findLatest(pairId, p),
+                (c, p) -> privateMessageRepository.findBefore(pairId, c.createdAt(), c.id(), p),
+                (c, p) -> privateMessageRepository.findAfter(pairId, c.createdAt(), c.id(), p));
+        return getWindow(rows, isForward, hasAnchor(requestDto));
     }
 
-    @Cacheable(value = "ProjectMessages", key = "#projectId + ':' + #page", unless = "#result.page != #result.totalPage - 1", cacheManager = "caffeinCacheManager")
-    public GetMessageResponseDto<ProjectMessageDto> getProjectMessages(Long projectId, int page) {
-        Project project = validateProject(projectId);
-        Pageable pageable = PageRequest.of(Math.max(page - 1, 0), PAGE_SIZE, Sort.Direction.ASC, "createdAt");
-        var result = projectMessageRepository.findAllByProject(project, pageable);
+    public GetMessageWindowResponseDto<ProjectMessageDto> getProjectMessages(Long projectId,
+            GetMessagesRequestDto requestDto) {
+        validateProject(projectId);
+        MessageCursor cursor = getCursor(requestDto);
+        boolean isForward = isForward(requestDto);
+        List<ProjectMessageDto> rows = getRows(messageTails.project(projectId), cursor, isForward, PAGE_SIZE + 1,
+                p -> projectMessageRepository.findLatest(projectId, p),
+                (c, p) -> projectMessageRepository.findBefore(projectId, c.createdAt(), c.id(), p),
+                (c, p) -> projectMessageRepository.findAfter(projectId, c.createdAt(), c.id(), p));
+        return getWindow(rows, isForward, hasAnchor(requestDto));
+    }
 
-        return getMessages(pageable, result);
+    public SearchMessagesResponseDto searchMessages(User user, SearchMessagesRequestDto requestDto) {
+        MessageType type = requestDto.getMessageType();
+        if (requestDto.getChannelId() == null && (type == MessageType.PROJECT || type == MessageType.PRIVATE)) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, ErrorMessage.INVALID_PAYLOAD);
+        }
+        Long scopeId = switch (type) {
+            case SYSTEM, GLOBAL -> null;
+            case PROJECT -> {
+                Project project = validateProject(requestDto.getChannelId());
+                if (!translatorService.isMember(project, user)) {
+                    throw new BusinessException(HttpStatus.FORBIDDEN, ErrorMessage.MEMBER_ONLY);
+                }
+                yield project.getId();
+            }
+            case PRIVATE -> PrivateMessage.calcPairId(validateUser(requestDto.getChannelId()).getId(), user.getId());
+        };
+        MessageCursor cursor = requestDto.getCursor() != null ? MessageCursor.decode(requestDto.getCursor()) : null;
+
+        // Pages follow time, the best matches of each page come first
+        List<MessageHitDto> rows = messageSearchService.search(type, scopeId, requestDto.getKeywords(), cursor,
+                SEARCH_PAGE_SIZE + 1);
+        boolean hasMore = rows.size() > SEARCH_PAGE_SIZE;
+        List<MessageHitDto> messages = new ArrayList<>(hasMore ? rows.subList(0, SEARCH_PAGE_SIZE) : rows);
+        String nextCursor = null;
+        if (hasMore) {
+            MessageHitDto oldest = messages.get(messages.size() - 1);
+            nextCursor = new MessageCursor(oldest.createdAt(), oldest.id()).encode();
+        }
+        messages.sort(Comparator.comparing(MessageHitDto::rank).reversed()
+                .thenComparing(MessageHitDto::createdAt, Comparator.reverseOrder()));
+
+        var responseDto = new SearchMessagesResponseDto(messages, nextCursor);
+        addUsersAndProjects(responseDto, messages);
+        return responseDto;
     }
 
     public List<Attachment> uploadAttachments(List<MultipartFile> attachments) {
@@ -220,33 +450,35 @@ public class MessageService {
         }
         var attachments = presignedAttachments(requestDto.getAttachments());
         var message = new SystemMessage(requestDto.getContent(), attachments);
-        message = systemMessageRepository.save(message);
-        messageManager.sendSystem(message);
+        message = save(MessageType.SYSTEM, ChannelSequence.SHARED_CHANNEL, message, systemMessageRepository);
+        messageTails.add(message);
+        eventPublisher.publishEvent(new SystemMessageEvent(message));
         systemMessagesCache.evict("getTodaySystemMessages");
         return message;
     }
 
-    @Transactional
     public GlobalMessage sendGlobalMessage(User user, SendMessageRequestDto requestDto) {
         var attachments = presignedAttachments(requestDto.getAttachments());
         log.info("attachments", attachments);
         var message = new GlobalMessage(user, requestDto.getContent(), attachments);
-        message = globalMessageRepository.save(message);
-        messageManager.sendGlobal(message);
-        return message;
+        return persist(MessageType.GLOBAL, ChannelSequence.SHARED_CHANNEL, message, globalMessageRepository, saved -> {
+            unreadService.onGlobalMessage(saved);
+            messageTails.add(saved);
+            eventPublisher.publishEvent(new GlobalMessageEvent(saved));
+        });
     }
 
-    @Transactional
     public PrivateMessage sendPrivateMessage(User sender, Long recipientId, SendMessageRequestDto requestDto) {
         User recipient = validateUser(recipientId);
         var attachments = presignedAttachments(requestDto.getAttachments());
         var message = new PrivateMessage(sender, recipient, requestDto.getContent(), attachments);
-        message = privateMessageRepository.save(message);
-        messageManager.sendToUser(sender, recipient, message);
-        return message;
+        return persist(MessageType.PRIVATE, message.getPairId(), message, privateMessageRepository, saved -> {
+            unreadService.onPrivateMessage(saved);
+            messageTails.add(saved);
+            eventPublisher.publishEvent(new PrivateMessageEvent(sender, recipient, saved));
+        });
     }
 
-    @Transactional
     public ProjectMessage sendProjectMessage(Long projectId, User sender, SendMessageRequestDto requestDto) {
         Project project = validateProject(projectId);
         boolean isMember = translatorService.isMember(project, sender);
@@ -255,13 +487,29 @@ public class MessageService {
         }
         List<Attachment> attachments = presignedAttachments(requestDto.getAttachments());
         var message = new ProjectMessage(project, sender, requestDto.getContent(), attachments);
-        message = projectMessageRepository.save(message);
-        messageManager.sendToProject(project, message);
-        return message;
+        return persist(MessageType.PROJECT, project.getId(), message, projectMessageRepository, saved -> {
+            unreadService.onProjectMessage(saved);
+            messageTails.add(saved);
+            eventPublisher.publishEvent(new ProjectMessageEvent(project, saved));
+        });
     }
 
-    private Attachment getAttachment(List<Attachment> attachments, Long attachmentId) {
-        return attachments.stream().filter(a -> a.getId() == attachmentId).findFirst().orElse(null);
+    /**
+     * Stores a chat message and runs onSaved in the same transaction, so
+     * unread counters, tails and delivery follow the insert or roll back with
+     * it. Sends validate before this in their own short reads, so no
+     * transaction is open while the write-behind writer batches the insert.
+     */
+    private <T extends MessageBase> T persist(MessageType type, Long channelId, T message,
+            JpaRepository<T, Long> repository, Consumer<T> onSaved) {
+        if (messageWriter.isEnabled()) {
+            return messageWriter.persist(message, onSaved);
+        }
+        return transactionTemplate.execute(status -> {
+            T saved = save(type, channelId, message, repository);
+            onSaved.accept(saved);
+            return saved;
+        });
     }
 
     private void updateAttachments(List<Attachment> attachments, List<UpdateAttachmentDto> updateDto) {
@@ -285,27 +533,32 @@ public class MessageService {
                 var message = globalMessageRepository.findById(id).get();
                 updateAttachments(message.getAttachments(), updateDto);
                 message = globalMessageRepository.save(message);
-                messageManager.sendGlobal(message);
+                messageTails.add(message);
+                eventPublisher.publishEvent(new GlobalMessageEvent(message));
                 return message;
             } else if (type == MessageType.SYSTEM) {
                 var message = systemMessageRepository.findById(id).get();
                 updateAttachments(message.getAttachments(), updateDto);
                 message = systemMessageRepository.save(message);
-                messageManager.sendSystem(message);
+                messageTails.add(message);
+                eventPublisher.publishEvent(new SystemMessageEvent(message));
                 return message;
             } else if (type == MessageType.PROJECT) {
                 var message = projectMessageRepository.findById(id).get();
                 Project project = message.getProject();
                 updateAttachments(message.getAttachments(), updateDto);
                 message = projectMessageRepository.save(message);
-                messageManager.sendToProject(project, message);
+                messageTails.add(message);
+                eventPublisher.publishEvent(new ProjectMessageEvent(project, message));
                 return message;
             } else if (type == MessageType.PRIVATE) {
                 var message = privateMessageRepository.findById(id).get();
-                User recipient = message.getRecipient();
+                // Delivered from the fanout thread, so the recipient must not stay a lazy proxy
+                User recipient = Hibernate.unproxy(message.getRecipient(), User.class);
                 updateAttachments(message.getAttachments(), updateDto);
                 message = privateMessageRepository.save(message);
-                messageManager.sendToUser(user, recipient, message);
+                messageTails.add(message);
+                eventPublisher.publishEvent(new PrivateMessageEvent(user, recipient, message));
                 return message;
             }
         } catch (Exception e) {
@@ -315,38 +568,20 @@ public class MessageService {
 
     public String getDownloadUrl(User user, DownloadAttachmentDto requestDto) {
         Long id = requestDto.getMessageId();
-        MessageType type = requestDto.getMessageType();
-        Attachment attachment = null;
-        boolean hasRight = false;
-        try {
-            if (type == MessageType.GLOBAL) {
-                var message = globalMessageRepository.findById(id).get();
-                attachment = getAttachment(message.getAttachments(), requestDto.getAttachmentId());
-                hasRight = true;
-            } else if (type == MessageType.SYSTEM) {
-                var message = systemMessageRepository.findById(id).get();
-                attachment = getAttachment(message.getAttachments(), requestDto.getAttachmentId());
-                hasRight = true;
-            } else if (type == MessageType.PROJECT) {
-                var message = projectMessageRepository.findById(id).get();
-                Project project = message.getProject();
-                attachment = getAttachment(message.getAttachments(), requestDto.getAttachmentId());
-                hasRight = translatorService.isMember(project, user);
-            } else if (type == MessageType.PRIVATE) {
-                var message = privateMessageRepository.findById(id).get();
-                attachment = getAttachment(message.getAttachments(), requestDto.getAttachmentId());
-                hasRight = message.getSenderId() == user.getId() || message.getRecipientId() == user.getId();
-            }
-            if (attachment != null && hasRight) {
-                return s3Service.generateGetUrl(attachment.getKey());
-            }
-        } catch (Exception e) {
-        }
-        return null;
+        Long attachmentId = requestDto.getAttachmentId();
+        Optional<String> key = switch (requestDto.getMessageType()) {
+            case GLOBAL -> globalMessageRepository.findAttachmentKey(id, attachmentId);
+            case SYSTEM -> systemMessageRepository.findAttachmentKey(id, attachmentId);
+            case PROJECT -> projectMessageRepository.findAttachmentKey(id, attachmentId, user.getId());
+            case PRIVATE -> privateMessageRepository.findAttachmentKey(id, attachmentId, user.getId());
+        };
+        return key.map(s3Service::generateGetUrl).orElse(null);
     }
 
-    private void updateLastOnline(User user) {
-        userRepository.updateLastOnline(user.getId(), Instant.now());
+    private <T extends MessageBase> T save(MessageType type, Long channelId, T message,
+            JpaRepository<T, Long> repository) {
+        channelSequencer.assign(type, channelId, List.of(message));
+        return repository.save(message);
     }
 
     private User validateUser(Long id) {
@@ -0,0 +1,158 @@
+package mfy.server.domain.message.service;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mfy.server.domain.message.dto.MessageRequestDto.GetMessagesRequestDto;
+import mfy.server.domain.message.event.MessageEvent.GlobalMessageEvent;
+import mfy.server.domain.message.service.type.ScrollDirection;
+import mfy.server.global.exception.BusinessException;
+import mfy.server.global.exception.ErrorConfig.ErrorMessage;
+
+/**
+ * Pre-serialized state returned on subscription to the snapshot destinations.
+ * Each snapshot is encoded once and reused while its source is unchanged:
+ * the cached list of today's system messages and the presence version. The
+ * global snapshot has its own version, bumped by every global message event
+ * including attachment updates, and is rebuilt from those events on a
+ * background thread, so a subscription only reads the stored JSON. With the
+ * relay, messages of other nodes raise no local event, so the version is also
+ * bumped every cluster-refresh-ms.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class MessageSnapshots {
+
+    @Value("${server.config.websocket.relay.enabled:false}")
+    private boolean isRelayEnabled;
+
+    @Value("${server.config.message.snapshot.cluster-refresh-ms:1000}")
+    private long clusterRefreshMs;
+
+    private final MessageService messageService;
+    private final MessageManager messageManager;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicReference<Snapshot> system = new AtomicReference<>();
+    private final AtomicReference<Snapshot> global = new AtomicReference<>();
+    private final AtomicReference<Snapshot> presence = new AtomicReference<>();
+
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final AtomicBoolean isGlobalRebuildQueued = new AtomicBoolean();
+    private ScheduledExecutorService rebuilder;
+
+    private record Snapshot(Object key, RawValue json) {
+    }
+
+    @PostConstruct
+    public void start() {
+        rebuilder = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "message-snapshots"));
+        if (isRelayEnabled) {
+            rebuilder.scheduleAtFixedRate(this::invalidateGlobal, clusterRefreshMs, clusterRefreshMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        invalidateGlobal();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onGlobalMessage(GlobalMessageEvent event) {
+        invalidateGlobal();
+    }
+
+    // Any number of changes while a rebuild is queued are covered by that one rebuild
+    private void invalidateGlobal() {
+        globalVersion.incrementAndGet();
+        if (isGlobalRebuildQueued.compareAndSet(false, true)) {
+            rebuilder.execute(this::rebuildGlobal);
+        }
+    }
+
+    private void rebuildGlobal() {
+        isGlobalRebuildQueued.set(false);
+        try {
+            buildGlobal();
+        } catch (Exception e) {
+            log.error("Failed to rebuild the global snapshot: {}", e.getMessage());
+        }
+    }
+
+    private synchronized Snapshot buildGlobal() {
+        // Read first, a change after this line bumps the version again and queues another rebuild
+        long version = globalVersion.get();
+        Snapshot current = global.get();
+        if (current != null && current.key().equals(version)) {
+            return current;
+        }
+        var window = messageService.getGlobalMessages(new GetMessagesRequestDto(null, ScrollDirection.BEFORE, null));
+        Snapshot snapshot = new Snapshot(version, encode(window));
+        global.set(snapshot);
+        return snapshot;
+    }
+
+    // Same list instance until sending a system message evicts the cache
+    public RawValue system() {
+        List<?> messages = messageService.getTodaySystemMessages();
+        return get(system, messages, () -> messages);
+    }
+
+    // Only builds here when a subscription comes before the first rebuild
+    public RawValue global() {
+        Snapshot snapshot = global.get();
+        return (snapshot != null ? snapshot : buildGlobal()).json();
+    }
+
+    public RawValue presence() {
+        long version = messageManager.getPresenceVersion();
+        return get(presence, version, () -> messageManager.getPresence(null));
+    }
+
+    private RawValue get(AtomicReference<Snapshot> holder, Object key, Supplier<Object> source) {
+        Snapshot snapshot = holder.get();
+        if (snapshot != null && key != null && (snapshot.key() == key || key.equals(snapshot.key()))) {
+            return snapshot.json();
+        }
+        RawValue json = encode(source.get());
+        holder.set(new Snapshot(key, json));
+        return json;
+    }
+
+    private RawValue encode(Object value) {
+        try {
+            return new RawValue(objectMapper.writeValueAsString(value));
+        } catch (JsonProcessingException e) {
+            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, ErrorMessage.SERVER_ERROR);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package mfy.server.domain.message.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import mfy.server.domain.message.dto.MessageResponseDto.GlobalMessageDto;
+import mfy.server.domain.message.dto.MessageResponseDto.IMessageKey;
+import mfy.server.domain.message.dto.MessageResponseDto.PrivateMessageDto;
+import mfy.server.domain.message.dto.MessageResponseDto.ProjectMessageDto;
+import mfy.server.domain.message.dto.MessageResponseDto.SystemMessageDto;
+import mfy.server.domain.message.entity.GlobalMessage;
+import mfy.server.domain.message.entity.PrivateMessage;
+import mfy.server.domain.message.entity.ProjectMessage;
+import mfy.server.domain.message.entity.SystemMessage;
+import mfy.server.domain.message.service.type.MessageTail;
+
+/**
+ * Per-channel hot tails of the newest messages. Channels are bounded in number
+ * and idle ones are dropped, so memory stays at roughly channels * tail-size
+ * rows per node. Sends are appended only after their transaction commits.
+ * Appends only reach the node that handled the send, so with the broker relay
+ * the tails are off and every read goes to the database.
+ */
+@Component
+public class MessageTails {
+
+    private static final String GLOBAL_CHANNEL = "global";
+    private static final String SYSTEM_CHANNEL = "system";
+
+    @Value("${server.config.message.tail-size:50}")
+    private int tailSize;
+
+    @Value("${server.config.message.tail-channels:1000}")
+    private int tailChannels;
+
+    @Value("${server.config.message.tail-idle-minutes:30}")
+    private long tailIdleMinutes;
+
+    @Value("${server.config.websocket.relay.enabled:false}")
+    private boolean isRelayEnabled;
+
+    private Cache<String, MessageTail<?>> tails;
+
+    @PostConstruct
+    public void init() {
+        tails = Caffeine.newBuilder()
+                .maximumSize(tailChannels)
+                .expireAfterAccess(Duration.ofMinutes(tailIdleMinutes))
+                .build();
+    }
+
+    // Disabled tails are never loaded, so every read falls through to the repositories
+    public boolean isEnabled() {
+        return !isRelayEnabled;
+    }
+
+    public MessageTail<SystemMessageDto> system() {
+        return getTail(SYSTEM_CHANNEL);
+    }
+
+    public MessageTail<GlobalMessageDto> global() {
+        return getTail(GLOBAL_CHANNEL);
+    }
+
+    public MessageTail<ProjectMessageDto> project(Long projectId) {
+        return getTail("project:" + projectId);
+    }
+
+    public MessageTail<PrivateMessageDto> pair(Long pairId) {
+        return getTail("private:" + pairId);
+    }
+
+    public void add(SystemMessage message) {
+        addAfterCommit(SYSTEM_CHANNEL, SystemMessageDto.fromEntity(message));
+    }
+
+    public void add(GlobalMessage message) {
+        addAfterCommit(GLOBAL_CHANNEL, GlobalMessageDto.fromEntity(message));
+    }
+
+    public void add(ProjectMessage message) {
+        addAfterCommit("project:" + message.getProjectId(), ProjectMessageDto.fromEntity(message));
+    }
+
+    public void add(PrivateMessage message) {
+        addAfterCommit("private:" + message.getPairId(), PrivateMessageDto.fromEntity(message));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends IMessageKey> MessageTail<T> getTail(String channel) {
+        if (!isEnabled()) {
+            return new MessageTail<T>(tailSize);
+        }
+        return (MessageTail<T>) tails.get(channel, k -> new MessageTail<T>(tailSize));
+    }
+
+    private <T extends IMessageKey> void addAfterCommit(String channel, T message) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            addIfPresent(channel, message);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                addIfPresent(channel, message);
+            }
+        });
+    }
+
+    // Tails that were never read are not created here; they load from the database on first read
+    @SuppressWarnings("unchecked")
+    private <T extends IMessageKey> void addIfPresent(String channel, T message) {
+        MessageTail<T> tail = (MessageTail<T>) tails.getIfPresent(channel);
+        if (tail != null) {
+            tail.add(message);
+        }
+    }
+}
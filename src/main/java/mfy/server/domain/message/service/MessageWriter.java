@@ -0,0 +1,303 @@
+package mfy.server.domain.message.service;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import mfy.server.domain.message.entity.ChannelSequence;
+import mfy.server.domain.message.entity.GlobalMessage;
+import mfy.server.domain.message.entity.PrivateMessage;
+import mfy.server.domain.message.entity.ProjectMessage;
+import mfy.server.domain.message.entity.type.MessageBase;
+import mfy.server.domain.message.entity.type.MessageType;
+import mfy.server.global.exception.BusinessException;
+import mfy.server.global.exception.ErrorConfig.ErrorMessage;
+
+/**
+ * Write-behind persistence for chat sends. Messages are queued by the request
+ * thread and inserted by a single writer thread as multi-row INSERTs, one
+ * transaction per flush. Each message's onSaved callback runs in that
+ * transaction, so side effects commit or roll back with the insert. The
+ * request thread is released once its batch commits.
+ */
+@Slf4j
+@Component
+public class MessageWriter {
+
+    private static final String BASE_COLUMNS = "id, seq, content, created_at, updated_at, is_deleted, attachments";
+
+    @Value("${server.config.message.write-behind.enabled:false}")
+    private boolean isEnabled;
+
+    @Value("${server.config.message.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${server.config.message.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${server.config.message.write-behind.flush-interval-ms:5}")
+    private long flushIntervalMs;
+
+    @Value("${server.config.message.write-behind.ack-timeout-ms:5000}")
+    private long ackTimeoutMs;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ChannelSequencer channelSequencer;
+
+    private BlockingQueue<PendingMessage> queue;
+    private Thread writer;
+    private volatile boolean isRunning;
+
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedMessages = new AtomicLong();
+    private final AtomicLong flushNanos = new AtomicLong();
+    private final AtomicLong ackNanos = new AtomicLong();
+
+    private static final int QUEUED = 0;
+    private static final int TAKEN = 1;
+    private static final int CANCELLED = 2;
+
+    private record PendingMessage(MessageBase message, Runnable onSaved, AtomicInteger state,
+            CompletableFuture<Void> ack) {
+
+        // Claimed by the writer, a cancelled message is skipped
+        boolean take() {
+            return state.compareAndSet(QUEUED, TAKEN);
+        }
+
+        // Withdrawn by the sender, fails once the writer has it
+        boolean cancel() {
+            return state.compareAndSet(QUEUED, CANCELLED);
+        }
+    }
+
+    public MessageWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper, ChannelSequencer channelSequencer) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.channelSequencer = channelSequencer;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        // Bounds how long a sender waits for a flush that already took its message
+        transactionTemplate.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(ackTimeoutMs)));
+        isRunning = true;
+        writer = new Thread(this::run, "message-writer");
+        writer.start();
+        log.info("Message write-behind enabled: batch {} / {} ms", batchSize, flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        isRunning = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Queues the message and waits for its batch to commit. Must be called
+     * outside a transaction, so the sender holds no connection while waiting.
+     * When the ack times out while the message is still queued it is
+     * withdrawn and never written, so a retry cannot store it twice. Once the
+     * writer has taken it, the sender waits for that flush, which is bounded
+     * by the flush transaction timeout.
+     */
+    public <T extends MessageBase> T persist(T message, Consumer<T> onSaved) {
+        long start = System.nanoTime();
+        var pending = new PendingMessage(message, () -> onSaved.accept(message), new AtomicInteger(QUEUED),
+                new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            throw new BusinessException(HttpStatus.SERVICE_UNAVAILABLE, ErrorMessage.MESSAGE_QUEUE_FULL);
+        }
+        try {
+            try {
+                pending.ack().get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | InterruptedException e) {
+                if (pending.cancel()) {
+                    throw new BusinessException(HttpStatus.SERVICE_UNAVAILABLE, ErrorMessage.MESSAGE_QUEUE_FULL);
+                }
+                pending.ack().get();
+            }
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, ErrorMessage.SERVER_ERROR);
+        }
+        ackNanos.addAndGet(System.nanoTime() - start);
+        return message;
+    }
+
+    private void run() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (isRunning || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            batch.removeIf(pending -> !pending.take());
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingMessage> batch) {
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                var globalMessages = select(batch, GlobalMessage.class);
+                var projectMessages = select(batch, ProjectMessage.class);
+                var privateMessages = select(batch, PrivateMessage.class);
+                sequence(MessageType.GLOBAL, globalMessages, m -> ChannelSequence.SHARED_CHANNEL);
+                sequence(MessageType.PROJECT, projectMessages, ProjectMessage::getProjectId);
+                sequence(MessageType.PRIVATE, privateMessages, PrivateMessage::getPairId);
+                insert("globalmessages", "sender_id", globalMessages,
+                        m -> List.of(m.getSenderId()));
+                insert("projectmessages", "project_id, sender_id", projectMessages,
+                        m -> List.of(m.getProjectId(), m.getSenderId()));
+                insert("privatemessages", "pair_id, sender_id, recipient_id", privateMessages,
+                        m -> List.of(m.getPairId(), m.getSenderId(), m.getRecipientId()));
+                batch.forEach(pending -> pending.onSaved().run());
+            });
+            batch.forEach(pending -> pending.ack().complete(null));
+        } catch (Exception e) {
+            log.error("Failed to flush {} messages: {}", batch.size(), e.getMessage());
+            batch.forEach(pending -> pending.ack().completeExceptionally(e));
+        }
+        flushCount.incrementAndGet();
+        flushedMessages.addAndGet(batch.size());
+        flushNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    private <T extends MessageBase> List<T> select(List<PendingMessage> batch, Class<T> type) {
+        List<T> messages = new ArrayList<>();
+        for (PendingMessage pending : batch) {
+            if (type.isInstance(pending.message())) {
+                messages.add(type.cast(pending.message()));
+            }
+        }
+        return messages;
+    }
+
+    // One counter update per channel in the batch, numbers follow queue order
+    private <T extends MessageBase> void sequence(MessageType type, List<T> messages, Function<T, Long> channelOf) {
+        Map<Long, List<T>> channels = messages.stream()
+                .collect(Collectors.groupingBy(channelOf, LinkedHashMap::new, Collectors.toList()));
+        channels.forEach((channelId, channelMessages) -> channelSequencer.assign(type, channelId, channelMessages));
+    }
+
+    private <T extends MessageBase> void insert(String table, String columns, List<T> messages,
+            Function<T, List<Object>> values) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('" + table + "', 'id')) FROM generate_series(1, ?)",
+                Long.class, messages.size());
+
+        StringBuilder sql = new StringBuilder()
+                .append("INSERT INTO ").append(table)
+                .append(" (").append(BASE_COLUMNS).append(", ").append(columns).append(") VALUES ");
+        List<Object> params = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            T message = messages.get(i);
+            message.prePersist();
+            message.updateId(ids.get(i));
+            List<Object> extra = values.apply(message);
+
+            sql.append(i == 0 ? "(" : ", (").append("?, ?, ?, ?, ?, ?, ?::jsonb").append(", ?".repeat(extra.size()))
+                    .append(")");
+            params.add(message.getId());
+            params.add(message.getSeq());
+            params.add(message.getContent());
+            params.add(OffsetDateTime.ofInstant(message.getCreatedAt(), ZoneOffset.UTC));
+            params.add(OffsetDateTime.ofInstant(message.getUpdatedAt(), ZoneOffset.UTC));
+            params.add(message.getIsDeleted());
+            params.add(toJson(message.getAttachments()));
+            params.addAll(extra);
+        }
+        jdbcTemplate.update(sql.toString(), params.toArray());
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Scheduled(fixedRate = 1, timeUnit = TimeUnit.MINUTES)
+    public void logStats() {
+        long flushes = flushCount.getAndSet(0);
+        if (flushes == 0) {
+            return;
+        }
+        long messages = flushedMessages.getAndSet(0);
+        log.info("Message writer: {} messages in {} flushes, avg batch {}, avg flush {} us, avg ack {} us",
+                messages, flushes, messages / flushes,
+                TimeUnit.NANOSECONDS.toMicros(flushNanos.getAndSet(0)) / flushes,
+                TimeUnit.NANOSECONDS.toMicros(ackNanos.getAndSet(0)) / Math.max(messages, 1));
+    }
+}
@@ -0,0 +1,16 @@
+package mfy.server.domain.message.service;
+
+import java.util.function.Consumer;
+
+import mfy.server.domain.message.service.type.PresenceEvent;
+
+/**
+ * Channel carrying presence events between nodes. Every node receives every
+ * event, its own included.
+ */
+public interface PresenceBus {
+
+    void publish(PresenceEvent event);
+
+    void subscribe(Consumer<PresenceEvent> listener);
+}
@@ -0,0 +1,147 @@
+package mfy.server.domain.message.service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+import mfy.server.domain.message.service.type.OnlineUser;
+import mfy.server.domain.user.entity.User;
+
+/**
+ * Presence of every user with an open WebSocket session, plus users who left
+ * recently. Entries are immutable and replaced with compare-and-set, so
+ * connects and disconnects of different users never block each other and
+ * readers always see a consistent entry. Offline entries are evicted after
+ * offline-retention-minutes, oldest first when more than max-offline are kept.
+ */
+@Slf4j
+@Component
+public class PresenceStore {
+
+    @Value("${server.config.presence.offline-retention-minutes:30}")
+    private long offlineRetentionMinutes;
+
+    @Value("${server.config.presence.max-offline:50000}")
+    private int maxOffline;
+
+    private final Map<Long, Presence> entries = new ConcurrentHashMap<>();
+
+    public static record Presence(OnlineUser user, Set<String> sessionIds) {
+
+        public boolean isOnline() {
+            return !sessionIds.isEmpty();
+        }
+
+        // Identity, so replace and remove compare-and-set the exact entry that was read
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
+    /**
+     * Adds a session of the user, returns true when the user was offline before.
+     */
+    public boolean connect(User user, String sessionId) {
+        while (true) {
+            Presence current = entries.get(user.getId());
+            if (current == null) {
+                if (entries.putIfAbsent(user.getId(), new Presence(new OnlineUser(user), Set.of(sessionId))) == null) {
+                    return true;
+                }
+                continue;
+            }
+            if (current.sessionIds().contains(sessionId)) {
+                return false;
+            }
+            Set<String> sessionIds = new HashSet<>(current.sessionIds());
+            sessionIds.add(sessionId);
+            OnlineUser onlineUser = current.isOnline() ? current.user() : new OnlineUser(user);
+            if (entries.replace(user.getId(), current, new Presence(onlineUser, Set.copyOf(sessionIds)))) {
+                return !current.isOnline();
+            }
+        }
+    }
+
+    /**
+     * Removes a session of the user, returns true when it was their last one.
+     */
+    public boolean disconnect(Long userId, String sessionId) {
+        while (true) {
+            Presence current = entries.get(userId);
+            if (current == null || !current.sessionIds().contains(sessionId)) {
+                return false;
+            }
+            Set<String> sessionIds = new HashSet<>(current.sessionIds());
+            sessionIds.remove(sessionId);
+            Presence next = sessionIds.isEmpty()
+                    ? new Presence(current.user().withOffline(Instant.now()), Set.of())
+                    : new Presence(current.user(), Set.copyOf(sessionIds));
+            if (entries.replace(userId, current, next)) {
+                return sessionIds.isEmpty();
+            }
+        }
+    }
+
+    public Presence get(Long userId) {
+        return entries.get(userId);
+    }
+
+    public boolean isOnline(Long userId) {
+        Presence presence = entries.get(userId);
+        return presence != null && presence.isOnline();
+    }
+
+    public List<OnlineUser> getOnlineUsers() {
+        List<OnlineUser> users = new ArrayList<>();
+        for (Presence presence : entries.values()) {
+            if (presence.isOnline()) {
+                users.add(presence.user());
+            }
+        }
+        return users;
+    }
+
+    @Scheduled(fixedRate = 1, timeUnit = TimeUnit.MINUTES)
+    public void evict() {
+        Instant cutoff = Instant.now().minus(offlineRetentionMinutes, ChronoUnit.MINUTES);
+        List<Presence> offline = new ArrayList<>();
+        int evicted = 0;
+        for (Presence presence : entries.values()) {
+            if (presence.isOnline()) {
+                continue;
+            }
+            if (presence.user().getLastOnline().isBefore(cutoff)) {
+                evicted += entries.remove(presence.user().getId(), presence) ? 1 : 0;
+            } else {
+                offline.add(presence);
+            }
+        }
+        if (offline.size() > maxOffline) {
+            offline.sort(Comparator.comparing(p -> p.user().getLastOnline()));
+            for (Presence presence : offline.subList(0, offline.size() - maxOffline)) {
+                evicted += entries.remove(presence.user().getId(), presence) ? 1 : 0;
+            }
+        }
+        if (evicted > 0) {
+            log.info("Evicted {} offline users from presence, {} entries left", evicted, entries.size());
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package mfy.server.domain.message.service;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.tcp.reactor.ReactorNettyTcpStompClient;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mfy.server.domain.message.service.type.PresenceEvent;
+import mfy.server.global.config.WebSocketConfig;
+
+/**
+ * Presence bus over the STOMP broker used by the relay. Each node keeps its
+ * own connection subscribed to one topic and reconnects when it drops; events
+ * published while disconnected are lost and repaired by the next snapshot.
+ * Every event carries an HMAC of its body keyed with the cluster secret, and
+ * frames without a valid one are dropped, so only nodes can move presence.
+ * The node refuses to start with the relay when no secret is configured.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "server.config.websocket.relay.enabled", havingValue = "true")
+@Component
+public class StompPresenceBus extends StompSessionHandlerAdapter implements PresenceBus {
+
+    private static final String DESTINATION = WebSocketConfig.CLUSTER_TOPIC_PREFIX + "presence";
+    private static final String SIGNATURE_HEADER = "node-signature";
+    private static final String SIGNATURE_ALGORITHM = "HmacSHA256";
+    private static final long RECONNECT_SECONDS = 5;
+
+    @Value("${server.config.websocket.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${server.config.websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${server.config.websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${server.config.websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${server.config.websocket.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    // Shared by all nodes and required with the relay, the relay credentials are not secret enough
+    @Value("${server.config.presence.cluster.secret:}")
+    private String clusterSecret;
+
+    private final ObjectMapper objectMapper;
+
+    private final List<Consumer<PresenceEvent>> listeners = new CopyOnWriteArrayList<>();
+    private ReactorNettyTcpStompClient client;
+    private ScheduledExecutorService reconnector;
+    private volatile StompSession session;
+    private SecretKeySpec signingKey;
+
+    @PostConstruct
+    public void start() {
+        if (clusterSecret.isBlank()) {
+            throw new IllegalStateException("server.config.presence.cluster.secret is required with the relay");
+        }
+        signingKey = new SecretKeySpec(clusterSecret.getBytes(StandardCharsets.UTF_8), SIGNATURE_ALGORITHM);
+        // Bodies stay raw bytes, the signature is computed over exactly what goes on the wire
+        client = new ReactorNettyTcpStompClient(relayHost, relayPort);
+        client.setMessageConverter(new ByteArrayMessageConverter());
+        client.setDefaultHeartbeat(new long[] { 0, 0 });
+        reconnector = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "presence-bus"));
+        connect();
+    }
+
+    @PreDestroy
+    public void stop() {
+        reconnector.shutdownNow();
+        StompSession current = session;
+        if (current != null && current.isConnected()) {
+            current.disconnect();
+        }
+        client.shutdown();
+    }
+
+    private void connect() {
+        StompHeaders headers = new StompHeaders();
+        headers.setLogin(relayLogin);
+        headers.setPasscode(relayPasscode);
+        if (!relayVirtualHost.isBlank()) {
+            headers.setHost(relayVirtualHost);
+        }
+        client.connectAsync(headers, this).whenComplete((connected, e) -> {
+            if (e != null) {
+                log.warn("Presence bus connection failed: {}", e.getMessage());
+                scheduleReconnect();
+            }
+        });
+    }
+
+    private void scheduleReconnect() {
+        if (!reconnector.isShutdown()) {
+            reconnector.schedule(this::connect, RECONNECT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+        session.subscribe(DESTINATION, this);
+        this.session = session;
+        log.info("Presence bus connected to {}:{}", relayHost, relayPort);
+    }
+
+    @Override
+    public Type getPayloadType(StompHeaders headers) {
+        return byte[].class;
+    }
+
+    @Override
+    public void handleFrame(StompHeaders headers, Object payload) {
+        byte[] body = (byte[]) payload;
+        String signature = headers.getFirst(SIGNATURE_HEADER);
+        if (signature == null || !MessageDigest.isEqual(signature.getBytes(StandardCharsets.US_ASCII),
+                sign(body).getBytes(StandardCharsets.US_ASCII))) {
+            log.warn("Dropped presence event without a valid node signature");
+            return;
+        }
+        PresenceEvent event;
+        try {
+            event = objectMapper.readValue(body, PresenceEvent.class);
+        } catch (Exception e) {
+            log.warn("Dropped unreadable presence event: {}", e.getMessage());
+            return;
+        }
+        for (Consumer<PresenceEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (Exception e) {
+                log.error("Presence listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void handleTransportError(StompSession session, Throwable exception) {
+        if (this.session == session) {
+            this.session = null;
+        }
+        log.warn("Presence bus connection lost: {}", exception.getMessage());
+        scheduleReconnect();
+    }
+
+    @Override
+    public void publish(PresenceEvent event) {
+        StompSession current = session;
+        if (current == null || !current.isConnected()) {
+            return;
+        }
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(event);
+            StompHeaders headers = new StompHeaders();
+            headers.setDestination(DESTINATION);
+            headers.set(SIGNATURE_HEADER, sign(body));
+            current.send(headers, body);
+        } catch (Exception e) {
+            log.warn("Failed to publish presence event: {}", e.getMessage());
+        }
+    }
+
+    private String sign(byte[] body) {
+        try {
+            // Mac instances are not thread safe, presence traffic is low enough for one per event
+            Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+            mac.init(signingKey);
+            return Base64.getEncoder().encodeToString(mac.doFinal(body));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<PresenceEvent> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,143 @@
+package mfy.server.domain.message.service;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mfy.server.domain.message.dto.MessageResponseDto.TypingDto;
+import mfy.server.domain.message.entity.PrivateMessage;
+import mfy.server.domain.message.entity.type.MessageType;
+import mfy.server.domain.message.service.type.OnlineUser;
+import mfy.server.domain.project.service.TranslatorService;
+import mfy.server.domain.user.entity.User;
+import mfy.server.global.exception.BusinessException;
+import mfy.server.global.exception.ErrorConfig.ErrorMessage;
+import mfy.server.global.websocket.WebSocketInterceptor;
+
+/**
+ * Typing indicators for project and private chats, kept in memory only.
+ * Repeated starts of a user in a channel are coalesced to one event per
+ * window; each event carries an expiry, so clients hide the indicator on
+ * their own and a stop is only relayed for an indicator still shown. Each
+ * user is limited to max-per-second events over all channels, and checks use
+ * the membership and presence caches, so typing never reaches the database.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class TypingEvents {
+
+    private static final String PRIVATE_DESTINATION = "/queue/typing";
+
+    @Value("${server.config.message.typing.window-ms:3000}")
+    private long windowMs;
+
+    // Lifetime of an indicator, longer than the window so a steady typer never flickers
+    @Value("${server.config.message.typing.ttl-ms:6000}")
+    private long ttlMs;
+
+    @Value("${server.config.message.typing.max-per-second:5}")
+    private int maxPerSecond;
+
+    @Value("${server.config.message.typing.max-typers:100000}")
+    private int maxTypers;
+
+    private final MessageManager messageManager;
+    private final TranslatorService translatorService;
+    private final ClusterPresence clusterPresence;
+
+    // Time the shown indicator of a user in a channel was last sent
+    private Cache<TypingKey, Long> typers;
+
+    // Events relayed per user in the current second
+    private Cache<Long, AtomicInteger> rates;
+
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong limited = new AtomicLong();
+
+    private static record TypingKey(MessageType type, long channelId, long userId) {
+    }
+
+    @PostConstruct
+    public void init() {
+        typers = Caffeine.newBuilder()
+                .maximumSize(maxTypers)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .build();
+        rates = Caffeine.newBuilder()
+                .maximumSize(maxTypers)
+                .expireAfterWrite(1, TimeUnit.SECONDS)
+                .build();
+    }
+
+    public void typeInProject(User user, Long projectId, boolean isTyping) {
+        if (!translatorService.isMember(projectId, user.getId())) {
+            throw new BusinessException(HttpStatus.FORBIDDEN, ErrorMessage.MEMBER_ONLY);
+        }
+        TypingKey key = new TypingKey(MessageType.PROJECT, projectId, user.getId());
+        if (accept(key, isTyping)) {
+            messageManager.sendEphemeral(WebSocketInterceptor.PROJECT_TOPIC + projectId + MessageManager.TYPING_SUFFIX,
+                    toDto(key, isTyping));
+        }
+    }
+
+    // Nobody is told when the recipient is offline, their email comes from the presence view
+    public void typeToUser(User user, Long recipientId, boolean isTyping) {
+        OnlineUser recipient = clusterPresence.get(recipientId);
+        if (recipient == null || recipientId.equals(user.getId())) {
+            return;
+        }
+        TypingKey key = new TypingKey(MessageType.PRIVATE, PrivateMessage.calcPairId(user.getId(), recipientId),
+                user.getId());
+        if (accept(key, isTyping)) {
+            messageManager.sendEphemeralToUser(recipient.getEmail(), PRIVATE_DESTINATION, toDto(key, isTyping));
+        }
+    }
+
+    private boolean accept(TypingKey key, boolean isTyping) {
+        if (!isTyping) {
+            return typers.asMap().remove(key) != null;
+        }
+        long now = System.currentTimeMillis();
+        boolean[] isAccepted = { false };
+        typers.asMap().compute(key, (k, last) -> {
+            if (last != null && now - last < windowMs) {
+                coalesced.incrementAndGet();
+                return last;
+            }
+            if (rates.get(k.userId(), id -> new AtomicInteger()).incrementAndGet() > maxPerSecond) {
+                limited.incrementAndGet();
+                return last;
+            }
+            isAccepted[0] = true;
+            return now;
+        });
+        return isAccepted[0];
+    }
+
+    private TypingDto toDto(TypingKey key, boolean isTyping) {
+        Instant expiresAt = isTyping ? Instant.now().plusMillis(ttlMs) : null;
+        return new TypingDto(key.type(), key.channelId(), key.userId(), isTyping, expiresAt);
+    }
+
+    @Scheduled(fixedRate = 1, timeUnit = TimeUnit.MINUTES)
+    public void logStats() {
+        long coalescedCount = coalesced.getAndSet(0);
+        long limitedCount = limited.getAndSet(0);
+        if (coalescedCount > 0 || limitedCount > 0) {
+            log.info("Typing events coalesced {}, rate limited {} in the last minute", coalescedCount, limitedCount);
+        }
+    }
+}
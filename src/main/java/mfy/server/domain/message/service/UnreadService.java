@@ -0,0 +1,98 @@
+package mfy.server.domain.message.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mfy.server.domain.message.dto.MessageResponseDto.UnreadChannelDto;
+import mfy.server.domain.message.entity.GlobalMessage;
+import mfy.server.domain.message.entity.PrivateMessage;
+import mfy.server.domain.message.entity.ProjectMessage;
+import mfy.server.domain.message.entity.UnreadCounter;
+import mfy.server.domain.message.entity.type.MessageType;
+import mfy.server.domain.message.repository.UnreadCounterRepository;
+import mfy.server.domain.user.entity.User;
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class UnreadService {
+
+    private static final long CHANNEL_HEAD = UnreadCounter.CHANNEL_HEAD;
+
+    private final UnreadCounterRepository unreadCounterRepository;
+    private final ChannelSequencer channelSequencer;
+
+    // The head of global chat is its sequence number, only the sender's own watermark moves
+    public void onGlobalMessage(GlobalMessage message) {
+        unreadCounterRepository.skipOwnGlobalMessage(message.getSenderId());
+    }
+
+    public void onProjectMessage(ProjectMessage message) {
+        unreadCounterRepository.incrementProjectMembers(message.getProjectId(), message.getId(),
+                message.getSenderId(), message.getCreatedAt());
+    }
+
+    public void onPrivateMessage(PrivateMessage message) {
+        if (message.getSenderId().equals(message.getRecipientId())) {
+            return;
+        }
+        unreadCounterRepository.increment(message.getRecipientId(), MessageType.PRIVATE.name(), message.getPairId(),
+                message.getId(), message.getSenderId(), message.getCreatedAt());
+    }
+
+    /**
+     * Channels with unread messages. Private channels are keyed by the other
+     * user's id, the same id markRead and resume take.
+     */
+    @Transactional
+    public List<UnreadChannelDto> getUnreadChannels(User user) {
+        Map<MessageType, Long> heads = channelSequencer.getSharedHeads();
+        Map<MessageType, UnreadCounter> watermarks = new EnumMap<>(MessageType.class);
+        List<UnreadChannelDto> channels = new ArrayList<>();
+
+        for (UnreadCounter counter : unreadCounterRepository.findByUserId(user.getId())) {
+            if (counter.getType() == MessageType.GLOBAL || counter.getType() == MessageType.SYSTEM) {
+                watermarks.put(counter.getType(), counter);
+            } else if (counter.getCount() > 0 && counter.getType() == MessageType.PRIVATE) {
+                // Only the other user's messages count here, so the last sender is the other user
+                channels.add(UnreadChannelDto.fromEntity(counter, counter.getLastSenderId(), counter.getCount()));
+            } else if (counter.getCount() > 0) {
+                channels.add(UnreadChannelDto.fromEntity(counter, counter.getChannelId(), counter.getCount()));
+            }
+        }
+
+        heads.forEach((type, head) -> {
+            UnreadCounter watermark = watermarks.get(type);
+            if (watermark == null) {
+                // First visit: start from the current head instead of the whole history
+                unreadCounterRepository.markRead(user.getId(), type.name(), CHANNEL_HEAD, head, Instant.now());
+                return;
+            }
+            long count = head - watermark.getCount();
+            if (count > 0) {
+                channels.add(UnreadChannelDto.ofSharedChannel(type, count));
+            }
+        });
+        return channels;
+    }
+
+    @Transactional
+    public void markRead(User user, MessageType type, Long channelId) {
+        long count = 0;
+        if (type == MessageType.GLOBAL || type == MessageType.SYSTEM) {
+            channelId = CHANNEL_HEAD;
+            count = channelSequencer.getSharedHeads().getOrDefault(type, 0L);
+        } else if (type == MessageType.PRIVATE) {
+            channelId = PrivateMessage.calcPairId(user.getId(), channelId);
+        }
+        unreadCounterRepository.markRead(user.getId(), type.name(), channelId, count, Instant.now());
+    }
+}
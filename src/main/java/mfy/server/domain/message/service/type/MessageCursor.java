@@ -0,0 +1,50 @@
+package mfy.server.domain.message.service.type;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.springframework.http.HttpStatus;
+
+import mfy.server.domain.message.dto.MessageResponseDto.IMessageKey;
+import mfy.server.global.exception.BusinessException;
+import mfy.server.global.exception.ErrorConfig.ErrorMessage;
+
+/**
+ * Position of a message inside its channel, ordered by (createdAt, id).
+ * Clients only see the opaque encoded form.
+ */
+public record MessageCursor(Instant createdAt, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static MessageCursor of(IMessageKey message) {
+        return new MessageCursor(message.createdAt(), message.id());
+    }
+
+    public int compareTo(IMessageKey message) {
+        int result = createdAt.compareTo(message.createdAt());
+        return result != 0 ? result : id.compareTo(message.id());
+    }
+
+    public static MessageCursor seek(Instant at) {
+        return new MessageCursor(at, 0L);
+    }
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MessageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new MessageCursor(
+                    Instant.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (Exception e) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, ErrorMessage.INVALID_CURSOR);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package mfy.server.domain.message.service.type;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import mfy.server.domain.message.dto.MessageResponseDto.IMessageKey;
+
+/**
+ * Bounded buffer holding the newest messages of one channel, oldest first.
+ * Once loaded it is a contiguous suffix of the channel history, so reads that
+ * fall inside it can be answered without the database. Read methods return
+ * rows in the same order as the repositories, or null when the buffer cannot
+ * answer.
+ */
+public class MessageTail<T extends IMessageKey> {
+
+    private final int capacity;
+    private final List<T> messages;
+    private boolean isLoaded;
+    private boolean isComplete;
+
+    public MessageTail(int capacity) {
+        this.capacity = capacity;
+        this.messages = new ArrayList<>(capacity + 1);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized boolean isLoaded() {
+        return isLoaded;
+    }
+
+    public synchronized void add(T message) {
+        put(message);
+        if (messages.size() > capacity) {
+            messages.remove(0);
+            isComplete = false;
+        }
+    }
+
+    public synchronized void load(List<T> latest, boolean isComplete) {
+        for (T message : latest) {
+            put(message);
+        }
+        while (messages.size() > capacity) {
+            messages.remove(0);
+            isComplete = false;
+        }
+        this.isComplete = isComplete;
+        this.isLoaded = true;
+    }
+
+    public synchronized List<T> read(MessageCursor cursor, boolean isForward, int limit) {
+        if (!isLoaded) {
+            return null;
+        }
+        if (cursor == null) {
+            return before(messages.size(), limit);
+        }
+        if (isForward) {
+            return after(cursor, limit);
+        }
+        return before(indexOf(cursor, false), limit);
+    }
+
+    /**
+     * Messages after the given sequence number in sequence order, or null
+     * unless the buffer reaches back to it. Appends run after commit and can
+     * arrive out of sequence order, so a page with a missing number is left
+     * to the database rather than skipping that message.
+     */
+    public synchronized List<T> readSince(long seq, int limit) {
+        if (!isLoaded) {
+            return null;
+        }
+        boolean isCovered = isComplete;
+        List<T> rows = new ArrayList<>();
+        for (T message : messages) {
+            if (message.seq() == null || message.seq() <= seq) {
+                isCovered |= message.seq() != null;
+                continue;
+            }
+            rows.add(message);
+        }
+        if (!isCovered) {
+            return null;
+        }
+        rows.sort(Comparator.comparing(IMessageKey::seq));
+        List<T> page = new ArrayList<>(rows.subList(0, Math.min(limit, rows.size())));
+        long expected = seq + 1;
+        for (T message : page) {
+            if (message.seq() != expected++) {
+                return null;
+            }
+        }
+        return page;
+    }
+
+    private List<T> before(int end, int limit) {
+        if (end < limit && !isComplete) {
+            return null;
+        }
+        List<T> rows = new ArrayList<>(messages.subList(Math.max(end - limit, 0), end));
+        Collections.reverse(rows);
+        return rows;
+    }
+
+    private List<T> after(MessageCursor cursor, int limit) {
+        if (!isComplete && (messages.isEmpty() || cursor.compareTo(messages.get(0)) < 0)) {
+            return null;
+        }
+        int start = indexOf(cursor, true);
+        return new ArrayList<>(messages.subList(start, Math.min(start + limit, messages.size())));
+    }
+
+    // Index of the first message newer than the cursor, or not older than it when skipEqual is false
+    private int indexOf(MessageCursor cursor, boolean skipEqual) {
+        int index = messages.size();
+        while (index > 0) {
+            int result = cursor.compareTo(messages.get(index - 1));
+            if (result > 0 || (result == 0 && skipEqual)) {
+                break;
+            }
+            index--;
+        }
+        return index;
+    }
+
+    private void put(T message) {
+        MessageCursor key = MessageCursor.of(message);
+        int index = messages.size();
+        while (index > 0) {
+            T current = messages.get(index - 1);
+            if (current.id().equals(message.id())) {
+                messages.set(index - 1, message);
+                return;
+            }
+            if (key.compareTo(current) > 0) {
+                break;
+            }
+            index--;
+        }
+        messages.add(index, message);
+    }
+}
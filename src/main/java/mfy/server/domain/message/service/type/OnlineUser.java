@@ -7,43 +7,35 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import mfy.server.domain.user.entity.User;
 
+/**
+ * Immutable presence view of a user. Changes create a new instance, so it can
+ * be shared between threads and serialized without locking.
+ */
 @Getter
 @EqualsAndHashCode(of = { "id" })
 @AllArgsConstructor
 public class OnlineUser {
 
-    private Long id;
+    private final Long id;
 
-    private String nickname;
+    private final String nickname;
 
-    private String fullName;
+    private final String fullName;
 
-    private String avatar;
+    private final String avatar;
 
-    private String email;
+    private final String email;
 
-    private Boolean isOnline;
+    private final Boolean isOnline;
 
-    private Instant lastOnline;
+    private final Instant lastOnline;
 
     public OnlineUser(User user) {
-        this.id = user.getId();
-        this.nickname = user.getNickname();
-        this.fullName = user.getFullName();
-        this.avatar = user.getAvatar();
-        this.email = user.getEmail();
-        this.isOnline = true;
-        this.lastOnline = Instant.now();
+        this(user.getId(), user.getNickname(), user.getFullName(), user.getAvatar(), user.getEmail(), true,
+                Instant.now());
     }
 
-    public OnlineUser updateIsOnline() {
-        this.isOnline = true;
-        return this;
+    public OnlineUser withOffline(Instant lastOnline) {
+        return new OnlineUser(id, nickname, fullName, avatar, email, false, lastOnline);
     }
-
-    public OnlineUser updateLastOnline() {
-        this.isOnline = false;
-        this.lastOnline = Instant.now();
-        return this;
-    }
-}
\ No newline at end of file
+}
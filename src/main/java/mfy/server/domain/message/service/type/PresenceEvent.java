@@ -0,0 +1,45 @@
+package mfy.server.domain.message.service.type;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Presence of one node, exchanged between nodes on the presence bus. A change
+ * carries the one user whose sessions on the node opened or closed; a snapshot
+ * carries every user online on the node and replaces what was known of it.
+ * Entries carry the user's project ids, so no node looks up memberships of
+ * users connected elsewhere.
+ */
+public record PresenceEvent(
+        String node,
+        Boolean isSnapshot,
+        List<Entry> entries) {
+
+    public static record Entry(
+            Long id,
+            String nickname,
+            String fullName,
+            String avatar,
+            String email,
+            Boolean isOnline,
+            Instant lastOnline,
+            long[] projectIds) {
+
+        public static Entry from(OnlineUser user, long[] projectIds) {
+            return new Entry(user.getId(), user.getNickname(), user.getFullName(), user.getAvatar(),
+                    user.getEmail(), user.getIsOnline(), user.getLastOnline(), projectIds);
+        }
+
+        public OnlineUser toOnlineUser() {
+            return new OnlineUser(id, nickname, fullName, avatar, email, isOnline, lastOnline);
+        }
+    }
+
+    public static PresenceEvent change(String node, OnlineUser user, long[] projectIds) {
+        return new PresenceEvent(node, false, List.of(Entry.from(user, projectIds)));
+    }
+
+    public static PresenceEvent snapshot(String node, List<Entry> entries) {
+        return new PresenceEvent(node, true, entries);
+    }
+}
@@ -0,0 +1,6 @@
+package mfy.server.domain.message.service.type;
+
+public enum ScrollDirection {
+    BEFORE,
+    AFTER
+}
@@ -19,6 +19,8 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import mfy.server.domain.message.dto.MessageResponseDto.PresenceDto;
+import mfy.server.domain.message.service.MessageService;
 import mfy.server.domain.project.dto.ProjectRequestDto.JoinProjectRequestDto;
 import mfy.server.domain.project.dto.ProjectRequestDto.ProjectCreateRequestDto;
 import mfy.server.domain.project.dto.ProjectRequestDto.ProjectSearchRequestDto;
@@ -42,6 +44,7 @@ public class ProjectController {
 
     private final ValidatorService validator;
     private final ProjectService projectService;
+    private final MessageService messageService;
 
     @Operation(summary = "Create project")
     @PostMapping("/create")
@@ -60,6 +63,12 @@ public class ProjectController {
         return BaseResponse.success("Project basic info", responseDto);
     }
 
+    @Operation(summary = "Get online members of a project")
+    @GetMapping("/{id}/online")
+    public BaseResponse<PresenceDto> getOnlineMembers(@PathVariable Long id) {
+        return BaseResponse.success("Online members", messageService.getProjectPresence(id));
+    }
+
     @Operation(summary = "Become a project's translator")
     @PutMapping("/join")
     public BaseResponse<Object> join(
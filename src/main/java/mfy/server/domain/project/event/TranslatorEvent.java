@@ -0,0 +1,11 @@
+package mfy.server.domain.project.event;
+
+/**
+ * Published by TranslatorService when project membership changes, so live
+ * WebSocket sessions can follow without reconnecting.
+ */
+public class TranslatorEvent {
+
+    public static record TranslatorAddedEvent(Long projectId, Long userId) {
+    }
+}
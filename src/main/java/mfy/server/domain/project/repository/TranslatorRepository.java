@@ -2,6 +2,7 @@ package mfy.server.domain.project.repository;
 
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import mfy.server.domain.project.entity.Project;
 import mfy.server.domain.project.entity.Translator;
 import mfy.server.domain.user.entity.User;
@@ -15,4 +16,7 @@ public interface TranslatorRepository extends JpaRepository<Translator, Long> {
 
     List<TranslatorBase> findByUser(User user);
 
+    @Query("SELECT t.projectId FROM Translator t WHERE t.userId = :userId")
+    List<Long> findProjectIdsByUserId(Long userId);
+
 }
@@ -23,6 +23,7 @@ import mfy.server.domain.project.repository.ProjectRepository;
 import mfy.server.domain.user.entity.User;
 import mfy.server.global.exception.BusinessException;
 import mfy.server.global.exception.ErrorConfig.ErrorMessage;
+import mfy.server.global.service.BasicInfoLoader;
 import mfy.server.global.util.EnumUtil;
 
 @Slf4j
@@ -32,6 +33,7 @@ public class ProjectService {
     private static final int PAGE_SIZE = 10;
     private final ProjectRepository projectRepository;
     private final TranslatorService translatorService;
+    private final BasicInfoLoader basicInfoLoader;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -77,7 +79,9 @@ public class ProjectService {
             throw new BusinessException(HttpStatus.FORBIDDEN, ErrorMessage.NOT_PROJECT_OWNER);
         }
         project = project.updateProfile(requestDto);
-        return projectRepository.save(project);
+        project = projectRepository.save(project);
+        basicInfoLoader.evictProject(project.getId());
+        return project;
     }
 
     @Cacheable(value = "Projects", cacheManager = "caffeinCacheManager")
@@ -1,12 +1,22 @@
 package mfy.server.domain.project.service;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import mfy.server.domain.project.entity.Project;
 import mfy.server.domain.project.entity.Translator;
+import mfy.server.domain.project.event.TranslatorEvent.TranslatorAddedEvent;
 import mfy.server.domain.project.repository.TranslatorRepository;
 import mfy.server.domain.user.entity.User;
 import mfy.server.global.exception.BusinessException;
@@ -17,10 +27,32 @@ import mfy.server.global.exception.ErrorConfig.ErrorMessage;
 @Service
 public class TranslatorService {
 
+    @Value("${server.config.project.member-cache-size:20000}")
+    private int memberCacheSize;
+
+    @Value("${server.config.project.member-cache-minutes:10}")
+    private long memberCacheMinutes;
+
     private final TranslatorRepository translatorRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Project ids per user id, read on every project topic subscription and WebSocket connect
+    private Cache<Long, Set<Long>> memberships;
 
-    public List<Long> getProjectIds(User user) {
-        return translatorRepository.findByUser(user).stream().map(t -> t.getProjectId()).toList();
+    @PostConstruct
+    public void init() {
+        memberships = Caffeine.newBuilder()
+                .maximumSize(memberCacheSize)
+                .expireAfterWrite(Duration.ofMinutes(memberCacheMinutes))
+                .build();
+    }
+
+    public Set<Long> getProjectIds(User user) {
+        return getProjectIds(user.getId());
+    }
+
+    public Set<Long> getProjectIds(Long userId) {
+        return memberships.get(userId, id -> Set.copyOf(translatorRepository.findProjectIdsByUserId(id)));
     }
 
     public List<Project> getProjects(User user) {
@@ -31,6 +63,10 @@ public class TranslatorService {
         return translatorRepository.existsByProjectAndUser(project, user);
     }
 
+    public boolean isMember(Long projectId, Long userId) {
+        return getProjectIds(userId).contains(projectId);
+    }
+
     public void addTranslator(Project project, User user) {
         boolean isMember = isMember(project, user);
         if (isMember) {
@@ -38,5 +74,12 @@ public class TranslatorService {
         }
         Translator translator = new Translator(user, project);
         translatorRepository.save(translator);
+        eventPublisher.publishEvent(new TranslatorAddedEvent(project.getId(), user.getId()));
+    }
+
+    // After commit, so a concurrent load cannot cache the membership from before the join
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTranslatorAdded(TranslatorAddedEvent event) {
+        memberships.invalidate(event.userId());
     }
 }
@@ -3,7 +3,6 @@ package mfy.server.domain.user.repository;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -46,12 +45,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Page<IUserBasicDto> findAllBy(Pageable pageable);
 
-    @Query(value = """
-            SELECT u.id as id, u.nickname as nickname, u.avatar as avatar, u.score as score, u.joinedAt as joinedAt, u.fullName as fullName
-            FROM User u WHERE u.id IN :userIds
-            """)
-    List<IUserBasicDto> findInIds(Set<Long> userIds);
-
     @Modifying
     @Query("UPDATE User u SET u.lastOnline = :lastOnline WHERE u.id = :id")
     void updateLastOnline(Long id, Instant lastOnline);
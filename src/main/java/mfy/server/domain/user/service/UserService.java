@@ -27,6 +27,7 @@ import mfy.server.domain.user.entity.User;
 import mfy.server.domain.user.repository.UserRepository;
 import mfy.server.global.exception.BusinessException;
 import mfy.server.global.exception.ErrorConfig.ErrorMessage;
+import mfy.server.global.service.BasicInfoLoader;
 import mfy.server.global.service.S3Service;
 import mfy.server.global.util.CommonUtil;
 
@@ -42,6 +43,7 @@ public class UserService {
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
     private final S3Service s3Service;
+    private final BasicInfoLoader basicInfoLoader;
     private final ChatItemService chatItemService;
     private final TranslatorService translatorService;
 
@@ -98,7 +100,9 @@ public class UserService {
         }
 
         user.updateProfile(requestDto);
-        return userRepository.save(user);
+        user = userRepository.save(user);
+        basicInfoLoader.evictUser(user.getId());
+        return user;
     }
 
     @Cacheable(value = "Users", cacheManager = "caffeinCacheManager")
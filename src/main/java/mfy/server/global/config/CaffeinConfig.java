@@ -2,6 +2,7 @@ package mfy.server.global.config;
 
 import java.time.Duration;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
@@ -13,12 +14,20 @@ import org.springframework.cache.caffeine.CaffeineCacheManager;
 @EnableCaching
 @Configuration
 public class CaffeinConfig {
+
+    // Cache evictions stay on the node that made them, so cluster nodes keep entries for a shorter time
+    @Value("${server.config.websocket.relay.enabled:false}")
+    private boolean isRelayEnabled;
+
+    @Value("${server.config.cache.cluster-expire-seconds:30}")
+    private long clusterExpireSeconds;
+
     @Bean
     Caffeine<Object, Object> caffeine() {
         return Caffeine.newBuilder()
                 .initialCapacity(1024)
                 .maximumSize(5000)
-                .expireAfterWrite(Duration.ofMinutes(5));
+                .expireAfterWrite(isRelayEnabled ? Duration.ofSeconds(clusterExpireSeconds) : Duration.ofMinutes(5));
     }
 
     @Bean("caffeinCacheManager")
@@ -86,7 +86,9 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.POST, "/api/v1/message/system", "/api/v1/message/global",
                         "/api/v1/message/private", "/api/v1/message/project")
                 .authenticated()
-                .requestMatchers("/api/v1/message/attachment").authenticated()
+                .requestMatchers("/api/v1/message/attachment", "/api/v1/message/unread", "/api/v1/message/read",
+                        "/api/v1/message/search", "/api/v1/message/resume")
+                .authenticated()
                 .requestMatchers("/api/v1/message/**").permitAll()
 
                 .requestMatchers("/api/v1/notification/**").authenticated()
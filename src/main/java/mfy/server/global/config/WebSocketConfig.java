@@ -1,12 +1,18 @@
 package mfy.server.global.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
 
+import mfy.server.global.websocket.TransportStats;
 import mfy.server.global.websocket.WebSocketInterceptor;
 import mfy.server.global.websocket.exception.CustomStompExceptionHandler;
 import mfy.server.global.websocket.principal.CustomHandshakeHandler;
@@ -14,13 +20,87 @@ import mfy.server.global.websocket.principal.CustomHandshakeHandler;
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+    public static final String APPLICATION_PREFIX = "/app";
+
+    // Broker destinations the nodes use among themselves, clients may not subscribe or send to them
+    public static final String USER_DESTINATION_BROADCAST = "/topic/unresolved-user";
+    public static final String USER_REGISTRY_BROADCAST = "/topic/simp-user-registry";
+    public static final String CLUSTER_TOPIC_PREFIX = "/topic/cluster-";
+
+    // Relay /topic and /queue through an external STOMP broker so several nodes share destinations
+    @Value("${server.config.websocket.relay.enabled:false}")
+    private boolean isRelayEnabled;
+
+    @Value("${server.config.websocket.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${server.config.websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${server.config.websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${server.config.websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${server.config.websocket.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    // Channel executors, per-message virtual threads replace the pools when enabled
+    @Value("${server.config.websocket.executor.virtual-threads:false}")
+    private boolean isVirtualThreads;
+
+    @Value("${server.config.websocket.executor.inbound-pool-size:16}")
+    private int inboundPoolSize;
+
+    @Value("${server.config.websocket.executor.outbound-pool-size:16}")
+    private int outboundPoolSize;
+
+    @Value("${server.config.websocket.executor.queue-capacity:10000}")
+    private int queueCapacity;
+
+    // A session whose send buffer or blocked send exceeds these limits is closed as a slow consumer
+    @Value("${server.config.websocket.send-buffer-size-kb:512}")
+    private int sendBufferSizeKb;
+
+    @Value("${server.config.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${server.config.websocket.message-size-kb:64}")
+    private int messageSizeKb;
+
+    // Native endpoint and container settings
+    @Value("${server.config.websocket.deflate:true}")
+    private boolean isDeflateEnabled;
+
+    @Value("${server.config.websocket.container.buffer-size-kb:64}")
+    private int containerBufferSizeKb;
+
+    @Value("${server.config.websocket.container.idle-timeout-ms:120000}")
+    private long containerIdleTimeoutMs;
+
+    @Value("${server.config.websocket.container.send-timeout-ms:10000}")
+    private long containerSendTimeoutMs;
 
     private final WebSocketInterceptor webSocketInterceptor;
     private final CustomStompExceptionHandler webSocketExceptionHandler;
+    private final TransportStats transportStats;
 
-    public WebSocketConfig(WebSocketInterceptor webSocketInterceptor, CustomStompExceptionHandler webSocketExceptionHandler) {
+    public WebSocketConfig(WebSocketInterceptor webSocketInterceptor, CustomStompExceptionHandler webSocketExceptionHandler,
+            TransportStats transportStats) {
         this.webSocketInterceptor = webSocketInterceptor;
         this.webSocketExceptionHandler = webSocketExceptionHandler;
+        this.transportStats = transportStats;
+    }
+
+    @Bean
+    ServletServerContainerFactoryBean createWebSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(containerBufferSizeKb * 1024);
+        container.setMaxBinaryMessageBufferSize(containerBufferSizeKb * 1024);
+        container.setMaxSessionIdleTimeout(containerIdleTimeoutMs);
+        container.setAsyncSendTimeout(containerSendTimeoutMs);
+        return container;
     }
 
     @Override
@@ -28,21 +108,72 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
         registry
                 .setErrorHandler(webSocketExceptionHandler)
+                .setPreserveReceiveOrder(true)
                 .addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
-                .setHandshakeHandler(new CustomHandshakeHandler())
+                .setHandshakeHandler(new CustomHandshakeHandler(isDeflateEnabled))
                 .withSockJS();
+
+        // Plain WebSocket for clients that do not need the SockJS fallbacks
+        registry
+                .addEndpoint("/ws/native")
+                .setAllowedOriginPatterns("*")
+                .setHandshakeHandler(new CustomHandshakeHandler(isDeflateEnabled));
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        registry.setApplicationDestinationPrefixes("/app");
-        registry.enableSimpleBroker("/topic", "/queue"); 
+        registry.setApplicationDestinationPrefixes(APPLICATION_PREFIX);
         registry.setUserDestinationPrefix("/user");
+        // Outbound frames of one session stay in order across the pooled threads
+        registry.setPreservePublishOrder(true);
+        if (!isRelayEnabled) {
+            registry.enableSimpleBroker("/topic", "/queue");
+            return;
+        }
+        var relay = registry.enableStompBrokerRelay("/topic", "/queue")
+                .setRelayHost(relayHost)
+                .setRelayPort(relayPort)
+                .setClientLogin(relayLogin)
+                .setClientPasscode(relayPasscode)
+                .setSystemLogin(relayLogin)
+                .setSystemPasscode(relayPasscode);
+        if (!relayVirtualHost.isBlank()) {
+            relay.setVirtualHost(relayVirtualHost);
+        }
+        // User destinations that have no session on this node are resolved by the other nodes
+        registry.setUserDestinationBroadcast(USER_DESTINATION_BROADCAST);
+        registry.setUserRegistryBroadcast(USER_REGISTRY_BROADCAST);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration
+                .addDecoratorFactory(transportStats)
+                .setSendBufferSizeLimit(sendBufferSizeKb * 1024)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .setMessageSizeLimit(messageSizeKb * 1024);
     }
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         registration.interceptors(webSocketInterceptor);
+        configureExecutor(registration, inboundPoolSize, "ws-inbound-");
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        configureExecutor(registration, outboundPoolSize, "ws-outbound-");
+    }
+
+    private void configureExecutor(ChannelRegistration registration, int poolSize, String prefix) {
+        if (isVirtualThreads) {
+            registration.executor(new VirtualThreadTaskExecutor(prefix));
+            return;
+        }
+        registration.taskExecutor()
+                .corePoolSize(poolSize)
+                .maxPoolSize(poolSize)
+                .queueCapacity(queueCapacity);
     }
 }
\ No newline at end of file
@@ -46,5 +46,9 @@ public class ErrorConfig {
         public static final String MEMBER_ONLY = "Only project translators can send messages.";
 
         public static final String INVALID_PAYLOAD = "The request payload is invalid.";
+        public static final String INVALID_CURSOR = "The message cursor is invalid.";
+        public static final String INVALID_DESTINATION = "The subscription destination is invalid.";
+        public static final String MESSAGE_QUEUE_FULL = "Too many messages are being sent, try again later.";
+        public static final String SERVER_BUSY = "The server is busy, reconnect later.";
     }
 }
@@ -2,15 +2,24 @@ package mfy.server.global.serializer;
 
 import java.io.IOException;
 
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 
+import mfy.server.domain.project.dto.ProjectResponseDto.ProjectBasicDto;
 import mfy.server.domain.project.entity.Project;
+import mfy.server.global.service.BasicInfoLoader;
 
 public class ProjectSerializer extends StdSerializer<Project> {
 
+    // Injected when the serializer is created by the Spring-configured ObjectMapper
+    @Autowired(required = false)
+    private BasicInfoLoader basicInfoLoader;
+
     public ProjectSerializer() {
         this(null);
     }
@@ -23,6 +32,13 @@ public class ProjectSerializer extends StdSerializer<Project> {
     public void serialize(
             Project value, JsonGenerator jgen, SerializerProvider provider)
             throws IOException, JsonProcessingException {
+        if (basicInfoLoader != null && !Hibernate.isInitialized(value)) {
+            ProjectBasicDto project = basicInfoLoader.getProject(value.getId());
+            if (project != null) {
+                jgen.writeObject(project);
+                return;
+            }
+        }
         jgen.writeStartObject();
         jgen.writeNumberField("id", value.getId());
         jgen.writeStringField("title", value.getTitle());
@@ -2,14 +2,23 @@ package mfy.server.global.serializer;
 
 import java.io.IOException;
 
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import mfy.server.domain.user.dto.UserResponseDto.UserBasicDto;
 import mfy.server.domain.user.entity.User;
+import mfy.server.global.service.BasicInfoLoader;
 
 public class UserSerializer extends StdSerializer<User> {
 
+    // Injected when the serializer is created by the Spring-configured ObjectMapper
+    @Autowired(required = false)
+    private BasicInfoLoader basicInfoLoader;
+
     public UserSerializer() {
         this(null);
     }
@@ -22,6 +31,13 @@ public class UserSerializer extends StdSerializer<User> {
     public void serialize(
             User value, JsonGenerator jgen, SerializerProvider provider)
             throws IOException, JsonProcessingException {
+        if (basicInfoLoader != null && !Hibernate.isInitialized(value)) {
+            UserBasicDto user = basicInfoLoader.getUser(value.getId());
+            if (user != null) {
+                jgen.writeObject(user);
+                return;
+            }
+        }
         jgen.writeStartObject();
         jgen.writeNumberField("id", value.getId());
         jgen.writeStringField("nickname", value.getNickname());
@@ -0,0 +1,134 @@
+package mfy.server.global.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import mfy.server.domain.project.dto.ProjectResponseDto.ProjectBasicDto;
+import mfy.server.domain.project.entity.type.Category;
+import mfy.server.domain.project.entity.type.Language;
+import mfy.server.domain.user.dto.UserResponseDto.UserBasicDto;
+
+/**
+ * Near-cache of the user and project summaries attached to chat payloads.
+ * Misses are fetched in one query per type with a single array parameter, so
+ * the statement is the same whatever the number of ids. Evictions are local
+ * to the node, so with the broker relay entries expire after
+ * cluster-cache-seconds to bound how long other nodes serve a stale profile.
+ */
+@RequiredArgsConstructor
+@Service
+public class BasicInfoLoader {
+
+    private static final String USERS_SQL = """
+            SELECT u.id, u.nickname, u.avatar, u.full_name, u.score, u.joined_at
+            FROM users u WHERE u.id = ANY(?)
+            """;
+
+    private static final String PROJECTS_SQL = """
+            SELECT p.id, p.title, p.src_url, p.src_lang, p.des_lang, p.category
+            FROM projects p WHERE p.id = ANY(?)
+            """;
+
+    @Value("${server.config.basic-info.cache-size:20000}")
+    private int cacheSize;
+
+    @Value("${server.config.basic-info.cache-minutes:30}")
+    private long cacheMinutes;
+
+    @Value("${server.config.basic-info.cluster-cache-seconds:30}")
+    private long clusterCacheSeconds;
+
+    @Value("${server.config.websocket.relay.enabled:false}")
+    private boolean isRelayEnabled;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private Cache<Long, UserBasicDto> users;
+    private Cache<Long, ProjectBasicDto> projects;
+
+    @PostConstruct
+    public void init() {
+        Duration expiry = isRelayEnabled ? Duration.ofSeconds(clusterCacheSeconds) : Duration.ofMinutes(cacheMinutes);
+        users = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(expiry)
+                .build();
+        projects = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(expiry)
+                .build();
+    }
+
+    public List<UserBasicDto> getUsers(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return List.copyOf(users.getAll(ids, this::loadUsers).values());
+    }
+
+    public List<ProjectBasicDto> getProjects(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return List.copyOf(projects.getAll(ids, this::loadProjects).values());
+    }
+
+    public UserBasicDto getUser(Long id) {
+        return users.getAll(List.of(id), this::loadUsers).get(id);
+    }
+
+    public ProjectBasicDto getProject(Long id) {
+        return projects.getAll(List.of(id), this::loadProjects).get(id);
+    }
+
+    public void evictUser(Long id) {
+        users.invalidate(id);
+    }
+
+    public void evictProject(Long id) {
+        projects.invalidate(id);
+    }
+
+    private Map<Long, UserBasicDto> loadUsers(Set<? extends Long> ids) {
+        Map<Long, UserBasicDto> result = new HashMap<Long, UserBasicDto>();
+        jdbcTemplate.query(USERS_SQL, rs -> {
+            var user = new UserBasicDto(
+                    rs.getLong("id"),
+                    rs.getString("nickname"),
+                    rs.getString("avatar"),
+                    rs.getString("full_name"),
+                    rs.getInt("score"),
+                    rs.getTimestamp("joined_at").toInstant());
+            result.put(user.id(), user);
+        }, (Object) ids.toArray(Long[]::new));
+        return result;
+    }
+
+    private Map<Long, ProjectBasicDto> loadProjects(Set<? extends Long> ids) {
+        Map<Long, ProjectBasicDto> result = new HashMap<Long, ProjectBasicDto>();
+        jdbcTemplate.query(PROJECTS_SQL, rs -> {
+            var project = new ProjectBasicDto(
+                    rs.getLong("id"),
+                    rs.getString("title"),
+                    rs.getString("src_url"),
+                    Language.values()[rs.getInt("src_lang")],
+                    Language.values()[rs.getInt("des_lang")],
+                    Category.values()[rs.getInt("category")]);
+            result.put(project.id(), project);
+        }, (Object) ids.toArray(Long[]::new));
+        return result;
+    }
+}
@@ -0,0 +1,111 @@
+package mfy.server.global.websocket;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import mfy.server.global.exception.BusinessException;
+import mfy.server.global.exception.ErrorConfig.ErrorMessage;
+
+/**
+ * Admission control for STOMP CONNECT frames. A token bucket caps the connect
+ * rate and a semaphore caps how many connects authenticate at once, so a
+ * reconnect storm after a deploy cannot take every inbound thread or database
+ * connection. Rejected clients get a jittered delay to retry after.
+ */
+@Slf4j
+@Component
+public class ConnectAdmission {
+
+    @Value("${server.config.websocket.admission.connects-per-second:200}")
+    private double connectsPerSecond;
+
+    @Value("${server.config.websocket.admission.burst:400}")
+    private double burst;
+
+    @Value("${server.config.websocket.admission.max-concurrent:16}")
+    private int maxConcurrent;
+
+    @Value("${server.config.websocket.admission.wait-ms:2000}")
+    private long waitMs;
+
+    // Bounds of the reconnect delay suggested to rejected clients
+    @Value("${server.config.websocket.admission.reconnect-min-ms:1000}")
+    private long reconnectMinMs;
+
+    @Value("${server.config.websocket.admission.reconnect-max-ms:30000}")
+    private long reconnectMaxMs;
+
+    private Semaphore permits;
+    private double tokens;
+    private long refilledAt;
+    private final AtomicLong rejected = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(maxConcurrent);
+        tokens = burst;
+        refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Runs the connect work once admitted, otherwise throws a 503 whose data is
+     * the suggested reconnect delay in milliseconds.
+     */
+    public void admit(Runnable connect) {
+        if (!tryTake()) {
+            throw reject();
+        }
+        try {
+            if (!permits.tryAcquire(waitMs, TimeUnit.MILLISECONDS)) {
+                throw reject();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject();
+        }
+        try {
+            connect.run();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private synchronized boolean tryTake() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) / 1e9 * connectsPerSecond);
+        refilledAt = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    private BusinessException reject() {
+        rejected.incrementAndGet();
+        return new BusinessException(HttpStatus.SERVICE_UNAVAILABLE.value(), ErrorMessage.SERVER_BUSY,
+                getReconnectDelay());
+    }
+
+    // Full jitter, so rejected clients spread out instead of retrying together
+    public long getReconnectDelay() {
+        return ThreadLocalRandom.current().nextLong(reconnectMinMs, reconnectMaxMs + 1);
+    }
+
+    @Scheduled(fixedRate = 1, timeUnit = TimeUnit.MINUTES)
+    public void logStats() {
+        long count = rejected.getAndSet(0);
+        if (count > 0) {
+            log.warn("Rejected {} WebSocket connects in the last minute", count);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package mfy.server.global.websocket;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counts outbound STOMP frames, their bytes and the time spent sending them,
+ * separately for SockJS and native WebSocket sessions, and logs the per-frame
+ * averages. Send time includes SockJS framing or permessage-deflate, which
+ * both run on the sending thread.
+ */
+@Slf4j
+@Component
+public class TransportStats implements WebSocketHandlerDecoratorFactory {
+
+    private final Counter sockJs = new Counter();
+    private final Counter direct = new Counter();
+
+    private static class Counter {
+        private final AtomicLong frames = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                Counter counter = session instanceof SockJsSession ? sockJs : direct;
+                super.afterConnectionEstablished(new WebSocketSessionDecorator(session) {
+                    @Override
+                    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+                        long start = System.nanoTime();
+                        super.sendMessage(message);
+                        counter.nanos.addAndGet(System.nanoTime() - start);
+                        counter.frames.incrementAndGet();
+                        counter.bytes.addAndGet(message.getPayloadLength());
+                    }
+                });
+            }
+        };
+    }
+
+    @Scheduled(fixedRate = 5, timeUnit = TimeUnit.MINUTES)
+    public void logStats() {
+        report("sockjs", sockJs);
+        report("native", direct);
+    }
+
+    private void report(String transport, Counter counter) {
+        long frames = counter.frames.getAndSet(0);
+        long bytes = counter.bytes.getAndSet(0);
+        long nanos = counter.nanos.getAndSet(0);
+        if (frames > 0) {
+            log.info("WebSocket {}: {} frames, {} bytes/frame, {} us/frame", transport, frames, bytes / frames,
+                    TimeUnit.NANOSECONDS.toMicros(nanos / frames));
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package mfy.server.global.websocket;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import mfy.server.domain.message.service.MessageManager;
 import mfy.server.global.security.UserDetailsImpl;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
 import org.springframework.web.socket.messaging.AbstractSubProtocolEvent;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
@@ -19,14 +23,24 @@ import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
 @RequiredArgsConstructor
 @Component
 public class WebSocketEventListener {
+    // Period of the session, broker and channel executor stats log
+    @Value("${server.config.websocket.stats-minutes:5}")
+    private long statsMinutes;
+
     private final MessageManager messageManager;
+    private final WebSocketMessageBrokerStats webSocketMessageBrokerStats;
+
+    @PostConstruct
+    public void init() {
+        webSocketMessageBrokerStats.setLoggingPeriod(statsMinutes * 60 * 1000);
+    }
 
     @EventListener
     public void sessionConnectedEvent(SessionConnectedEvent event) {
         SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
         var userDetails = getUserDetails(event);
         if (userDetails != null) {
-            messageManager.addUser(userDetails.getUser());
+            messageManager.addUser(accessor.getSessionId(), userDetails.getUser());
         }
         log.info("Session {} ({}) connected", accessor.getSessionId(),
                 userDetails == null ? "" : userDetails.getUsername(), accessor.getDestination());
@@ -48,7 +62,11 @@ public class WebSocketEventListener {
     public void sessionDisconnectEvent(SessionDisconnectEvent event) {
         var userDetails = getUserDetails(event);
         if (userDetails != null) {
-            messageManager.removeUser(userDetails.getUser());
+            messageManager.removeUser(event.getSessionId(), userDetails.getUser());
+        }
+        if (CloseStatus.SESSION_NOT_RELIABLE.equals(event.getCloseStatus())) {
+            log.warn("Session {} ({}) closed as a slow consumer", event.getSessionId(),
+                    userDetails == null ? "" : userDetails.getUsername());
         }
         log.info("Session {} ({}) disconnected", event.getSessionId(),
                 userDetails == null ? "" : userDetails.getUsername());
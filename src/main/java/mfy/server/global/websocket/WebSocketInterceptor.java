@@ -2,15 +2,24 @@ package mfy.server.global.websocket;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import mfy.server.domain.message.service.ClusterPresence;
+import mfy.server.domain.message.service.MessageBatcher;
+import mfy.server.domain.message.service.MessageManager;
+import mfy.server.domain.project.service.TranslatorService;
 import mfy.server.domain.user.entity.User;
+import mfy.server.global.exception.BusinessException;
 import mfy.server.global.exception.ErrorConfig.ErrorMessage;
 import mfy.server.global.exception.TokenException;
 import mfy.server.global.auth.TokenProvider;
+import mfy.server.global.config.WebSocketConfig;
 import mfy.server.global.security.UserDetailsImpl;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
@@ -27,23 +36,122 @@ import org.springframework.util.StringUtils;
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE + 99)
 public class WebSocketInterceptor implements ChannelInterceptor {
+    public static final String PROJECT_TOPIC = "/topic/project/";
+
     private final TokenProvider tokenProvider;
+    private final TranslatorService translatorService;
+    private final ConnectAdmission connectAdmission;
+    // Looked up on use, the batcher needs the broker template which is built after this interceptor
+    private final ObjectProvider<MessageBatcher> messageBatcher;
+    private final ClusterPresence clusterPresence;
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
         StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
 
         if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
-            try {
-                setAuthenticate(accessor);
-                log.info("New auth connection");
-            } catch (Exception e) {
-                log.info("New unauth connection.");
-            }
+            connectAdmission.admit(() -> {
+                try {
+                    setAuthenticate(accessor);
+                    log.info("New auth connection");
+                } catch (Exception e) {
+                    log.info("New unauth connection.");
+                }
+            });
+        }
+        if (accessor != null && StompCommand.SEND.equals(accessor.getCommand())) {
+            authorizeSend(accessor);
+        }
+        if (accessor != null && StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            authorizeSubscribe(accessor);
+            negotiateBatch(accessor);
+            routePresence(accessor);
+            messageBatcher.getObject().onSubscribe(accessor.getSessionId(), accessor.getSubscriptionId(),
+                    accessor.getDestination());
+        }
+        if (accessor != null && StompCommand.UNSUBSCRIBE.equals(accessor.getCommand())) {
+            messageBatcher.getObject().onUnsubscribe(accessor.getSessionId(), accessor.getSubscriptionId());
+        }
+        // Also sent by the server when a socket closes without a DISCONNECT frame
+        if (accessor != null && SimpMessageType.DISCONNECT.equals(accessor.getMessageType())) {
+            messageBatcher.getObject().onDisconnect(accessor.getSessionId());
         }
         return message;
     }
 
+    // Clients only send to message mappings, a SEND to /topic or /queue would reach the broker directly
+    private void authorizeSend(final StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(WebSocketConfig.APPLICATION_PREFIX + "/")) {
+            throw new BusinessException(HttpStatus.FORBIDDEN, ErrorMessage.INVALID_DESTINATION);
+        }
+    }
+
+    private static boolean isInternal(String destination) {
+        return destination.startsWith(WebSocketConfig.USER_DESTINATION_BROADCAST)
+                || destination.startsWith(WebSocketConfig.USER_REGISTRY_BROADCAST)
+                || destination.startsWith(WebSocketConfig.CLUSTER_TOPIC_PREFIX);
+    }
+
+    private void authorizeSubscribe(final StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination == null) {
+            return;
+        }
+        if (isInternal(destination)) {
+            throw new BusinessException(HttpStatus.FORBIDDEN, ErrorMessage.INVALID_DESTINATION);
+        }
+        // The broker treats subscriptions as patterns, a wildcard would match every project topic
+        if (destination.contains("*") || destination.contains("{")) {
+            throw new BusinessException(HttpStatus.FORBIDDEN, ErrorMessage.INVALID_DESTINATION);
+        }
+        if (!destination.startsWith(PROJECT_TOPIC)) {
+            return;
+        }
+        String channel = destination.substring(PROJECT_TOPIC.length());
+        boolean isPresence = channel.endsWith(MessageManager.PRESENCE_SUFFIX);
+        if (isPresence) {
+            channel = channel.substring(0, channel.length() - MessageManager.PRESENCE_SUFFIX.length());
+        } else if (channel.endsWith(MessageManager.TYPING_SUFFIX)) {
+            channel = channel.substring(0, channel.length() - MessageManager.TYPING_SUFFIX.length());
+        }
+        Long projectId;
+        try {
+            projectId = Long.parseLong(channel);
+        } catch (NumberFormatException e) {
+            throw new BusinessException(HttpStatus.FORBIDDEN, ErrorMessage.INVALID_DESTINATION);
+        }
+        // Project presence is public, like /api/v1/project/{id}/online
+        if (isPresence) {
+            return;
+        }
+        if (!(accessor.getUser() instanceof Authentication authentication)
+                || !(authentication.getPrincipal() instanceof UserDetailsImpl userDetails)) {
+            throw new BusinessException(HttpStatus.UNAUTHORIZED, ErrorMessage.USER_NOT_LOGGED_IN);
+        }
+        if (!translatorService.isMember(projectId, userDetails.getUser().getId())) {
+            throw new BusinessException(HttpStatus.FORBIDDEN, ErrorMessage.MEMBER_ONLY);
+        }
+    }
+
+    // Clients asking for batches are moved to the batch destination of the same topic
+    private void negotiateBatch(final StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination != null && "true".equals(accessor.getFirstNativeHeader(MessageBatcher.BATCH_HEADER))
+                && messageBatcher.getObject().isBatchable(destination)) {
+            accessor.setDestination(destination + MessageBatcher.BATCH_SUFFIX);
+        }
+    }
+
+    // Presence deltas are numbered per node, clients get the topic of the node holding their socket
+    private void routePresence(final StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination != null && (MessageManager.PRESENCE_TOPIC.equals(destination)
+                || (destination.startsWith(PROJECT_TOPIC) && destination.endsWith(MessageManager.PRESENCE_SUFFIX)))) {
+            accessor.setDestination(clusterPresence.getNodeTopic(destination));
+        }
+    }
+
     private void setAuthenticate(final StompHeaderAccessor accessor) {
         String bearerToken = accessor.getFirstNativeHeader(TokenProvider.AUTHORIZATION_HEADER);
 
@@ -33,33 +33,26 @@ public class CustomMessageExceptionHandler {
     @MessageExceptionHandler(BusinessException.class)
     public void handleBusinessException(BusinessException e, Principal principal) {
         log.error("handleBusinessException: {}", e.getMessage());
-        this.customExceptionHandler(principal, e.getCode(), e.getMessage(), e.getData());
+        this.sendError(principal, toErrorResponse(e));
     }
 
     @MessageExceptionHandler(AwsS3Exception.class)
     public void handleAWSS3Exeption(AwsS3Exception e, Principal principal) {
         log.error("handleAWSS3Exeption: {}", e.getMessage());
-        this.customExceptionHandler(principal, ErrorCode.S3_EXCEPTION, e.getMessage(), null);
+        this.sendError(principal, toErrorResponse(e));
     }
 
     @MessageExceptionHandler(TokenException.class)
     public void handleTokenExeption(TokenException e, Principal principal) {
         log.error("handleTokenExeption: {}", e.getMessage());
-        this.customExceptionHandler(principal, ErrorCode.TOKEN_EXCEPTION, e.getMessage(), null);
+        this.sendError(principal, toErrorResponse(e));
     }
 
     @MessageExceptionHandler(MethodArgumentNotValidException.class)
     public void handleMethodArgumentNotValidException(
             MethodArgumentNotValidException e, Principal principal) throws JsonProcessingException {
-        Map<String, String> errorMap = new HashMap<>();
-        BindingResult result = e.getBindingResult();
-
         log.error("handleMethodArgumentNotValidException: {}", e.getMessage());
-        for (FieldError error : result.getFieldErrors()) {
-            log.error("name: {}, message: {}", error.getField(), error.getDefaultMessage());
-            errorMap.put(error.getField(), error.getDefaultMessage());
-        }
-        this.customExceptionHandler(principal, HttpStatus.BAD_REQUEST.value(), e.getMessage(), errorMap);
+        this.sendError(principal, toErrorResponse(e));
     }
 
     @MessageExceptionHandler(RuntimeException.class)
@@ -67,14 +60,37 @@ public class CustomMessageExceptionHandler {
             throws JsonProcessingException {
 
         log.error("handleRuntimeException: {}", e);
-        this.customExceptionHandler(principal, HttpStatus.INTERNAL_SERVER_ERROR.value(), ErrorMessage.SERVER_ERROR,
-                null);
+        this.sendError(principal, toErrorResponse(e));
     }
 
-    private void customExceptionHandler(Principal principal, int code, String message, Object data) {
-        try {
-            BaseResponse<?> errorResponse = BaseResponse.error(code, message, data);
+    // Code, message and data of a failure, also carried by the nack of a failed socket send
+    public static BaseResponse<?> toErrorResponse(Exception e) {
+        if (e instanceof BusinessException businessException) {
+            return BaseResponse.error(businessException.getCode(), e.getMessage(), businessException.getData());
+        }
+        if (e instanceof AwsS3Exception) {
+            return BaseResponse.error(ErrorCode.S3_EXCEPTION, e.getMessage(), null);
+        }
+        if (e instanceof TokenException) {
+            return BaseResponse.error(ErrorCode.TOKEN_EXCEPTION, e.getMessage(), null);
+        }
+        if (e instanceof MethodArgumentNotValidException validException) {
+            Map<String, String> errorMap = new HashMap<>();
+            BindingResult result = validException.getBindingResult();
+            if (result != null) {
+                for (FieldError error : result.getFieldErrors()) {
+                    log.error("name: {}, message: {}", error.getField(), error.getDefaultMessage());
+                    errorMap.put(error.getField(), error.getDefaultMessage());
+                }
+            }
+            return BaseResponse.error(HttpStatus.BAD_REQUEST.value(), e.getMessage(), errorMap);
+        }
+        return BaseResponse.error(HttpStatus.INTERNAL_SERVER_ERROR.value(), ErrorMessage.SERVER_ERROR, null);
+    }
 
+    // Reaches every session of the user, failures of one session's send are nacked on its ack queue instead
+    public void sendError(Principal principal, BaseResponse<?> errorResponse) {
+        try {
             ObjectMapper objectMapper = new ObjectMapper();
             String responseJson = objectMapper.writeValueAsString(errorResponse);
             messageTemplate.convertAndSendToUser(principal.getName(), "/queue/error", responseJson);
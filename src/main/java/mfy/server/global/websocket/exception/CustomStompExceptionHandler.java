@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import mfy.server.global.dto.BaseResponse;
+import mfy.server.global.exception.BusinessException;
 import mfy.server.global.exception.ErrorConfig.ErrorCode;
 import mfy.server.global.exception.ErrorConfig.ErrorMessage;
 
@@ -23,6 +24,9 @@ import java.util.Objects;
 @Slf4j(topic = "CustomStompExceptionHandler")
 @Component
 public class CustomStompExceptionHandler extends StompSubProtocolErrorHandler {
+    // Suggested delay in milliseconds before reconnecting, set when a CONNECT is not admitted
+    public static final String RECONNECT_DELAY_HEADER = "reconnect-delay";
+
     private static final byte[] EMPTY_PAYLOAD = new byte[0];
 
     public CustomStompExceptionHandler() {
@@ -35,8 +39,12 @@ public class CustomStompExceptionHandler extends StompSubProtocolErrorHandler {
 
         Throwable exception = converterThrowException(e);
 
+        if (exception instanceof BusinessException businessException) {
+            Long reconnectDelay = businessException.getData() instanceof Long delay ? delay : null;
+            return handleStompException(clientMessage, exception.getMessage(), reconnectDelay);
+        }
         if (exception != null) {
-            return handleStompException(clientMessage, ErrorMessage.SERVER_ERROR);
+            return handleStompException(clientMessage, ErrorMessage.SERVER_ERROR, null);
         }
         return super.handleClientMessageProcessingError(clientMessage, e);
     }
@@ -48,14 +56,18 @@ public class CustomStompExceptionHandler extends StompSubProtocolErrorHandler {
         return exception;
     }
 
-    private Message<byte[]> handleStompException(Message<byte[]> clientMessage, String errorMessage) {
+    private Message<byte[]> handleStompException(Message<byte[]> clientMessage, String errorMessage,
+            Long reconnectDelay) {
         // SET response Dto
-        BaseResponse<?> errorResponse = BaseResponse.error(ErrorCode.STOMP_EXCEPTION, errorMessage);
+        BaseResponse<?> errorResponse = BaseResponse.error(ErrorCode.STOMP_EXCEPTION, errorMessage, reconnectDelay);
 
         // SET Header
         StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.ERROR);
         accessor.setLeaveMutable(true);
         accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        if (reconnectDelay != null) {
+            accessor.setNativeHeader(RECONNECT_DELAY_HEADER, reconnectDelay.toString());
+        }
 
         setReceiptIdForClient(clientMessage, accessor);
 
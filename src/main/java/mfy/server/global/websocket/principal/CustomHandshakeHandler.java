@@ -1,10 +1,12 @@
 package mfy.server.global.websocket.principal;
 
 import java.security.Principal;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.WebSocketExtension;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 
@@ -13,6 +15,29 @@ import mfy.server.global.security.UserDetailsImpl;
 
 @NoArgsConstructor
 public class CustomHandshakeHandler extends DefaultHandshakeHandler {
+    private static final String DEFLATE_EXTENSION = "permessage-deflate";
+
+    // The container negotiates permessage-deflate when the client offers it, unless disabled here
+    private boolean isDeflateEnabled = true;
+
+    public CustomHandshakeHandler(boolean isDeflateEnabled) {
+        this.isDeflateEnabled = isDeflateEnabled;
+    }
+
+    @Override
+    protected List<WebSocketExtension> filterRequestedExtensions(
+        ServerHttpRequest request,
+        List<WebSocketExtension> requestedExtensions,
+        List<WebSocketExtension> supportedExtensions
+    ) {
+        List<WebSocketExtension> extensions = super.filterRequestedExtensions(request, requestedExtensions,
+                supportedExtensions);
+        if (isDeflateEnabled) {
+            return extensions;
+        }
+        return extensions.stream().filter(e -> !DEFLATE_EXTENSION.equalsIgnoreCase(e.getName())).toList();
+    }
+
     @Override
     protected Principal determineUser(
         ServerHttpRequest request,
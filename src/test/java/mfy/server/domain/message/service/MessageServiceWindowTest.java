@@ -0,0 +1,161 @@
+package mfy.server.domain.message.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import mfy.server.domain.message.dto.MessageRequestDto.GetMessagesRequestDto;
+import mfy.server.domain.message.dto.MessageResponseDto.GetMessageWindowResponseDto;
+import mfy.server.domain.message.dto.MessageResponseDto.GlobalMessageDto;
+import mfy.server.domain.message.repository.GlobalMessageRepository;
+import mfy.server.domain.message.service.type.MessageCursor;
+import mfy.server.domain.message.service.type.MessageTail;
+import mfy.server.domain.message.service.type.ScrollDirection;
+import mfy.server.global.service.BasicInfoLoader;
+
+@ExtendWith(MockitoExtension.class)
+class MessageServiceWindowTest {
+
+    private static final Instant T0 = Instant.parse("2025-03-01T00:00:00Z");
+
+    @Mock
+    private GlobalMessageRepository globalMessageRepository;
+
+    @Mock
+    private MessageTails messageTails;
+
+    @Mock
+    private BasicInfoLoader basicInfoLoader;
+
+    @InjectMocks
+    private MessageService messageService;
+
+    private static GlobalMessageDto message(long id) {
+        return new GlobalMessageDto(id, "m" + id, T0.plusSeconds(id), null, false, List.of(), 1L, id);
+    }
+
+    // Channel with messages 1..count behind a cold tail, the first read of every test loads it through findLatest
+    private void givenChannel(int count, int tailCapacity) {
+        List<GlobalMessageDto> newest = new ArrayList<>();
+        for (long id = count; id > 0 && newest.size() < tailCapacity; id--) {
+            newest.add(message(id));
+        }
+        when(messageTails.isEnabled()).thenReturn(true);
+        when(messageTails.global()).thenReturn(new MessageTail<>(tailCapacity));
+        when(globalMessageRepository.findLatest(any())).thenReturn(newest);
+    }
+
+    private static List<Long> ids(GetMessageWindowResponseDto<GlobalMessageDto> window) {
+        return window.getMessages().stream().map(GlobalMessageDto::id).toList();
+    }
+
+    private static GetMessagesRequestDto request(String cursor, ScrollDirection direction, Instant at) {
+        return new GetMessagesRequestDto(cursor, direction, at);
+    }
+
+    @Test
+    void beforeWithoutAnchorReturnsNewestPageOldestFirst() {
+        givenChannel(15, 50);
+
+        var window = messageService.getGlobalMessages(request(null, ScrollDirection.BEFORE, null));
+
+        assertThat(ids(window)).containsExactly(6L, 7L, 8L, 9L, 10L, 11L, 12L, 13L, 14L, 15L);
+        assertThat(MessageCursor.decode(window.getPrevCursor()).id()).isEqualTo(6L);
+        assertThat(window.getNextCursor()).isNull();
+    }
+
+    @Test
+    void beforeCursorReturnsOlderPage() {
+        givenChannel(15, 50);
+        String cursor = MessageCursor.of(message(11)).encode();
+
+        var window = messageService.getGlobalMessages(request(cursor, ScrollDirection.BEFORE, null));
+
+        assertThat(ids(window)).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        assertThat(window.getPrevCursor()).isNull();
+        assertThat(MessageCursor.decode(window.getNextCursor()).id()).isEqualTo(10L);
+    }
+
+    @Test
+    void afterWithoutAnchorReadsFromTheStart() {
+        givenChannel(15, 50);
+
+        var window = messageService.getGlobalMessages(request(null, ScrollDirection.AFTER, null));
+
+        assertThat(ids(window)).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        assertThat(window.getPrevCursor()).isNull();
+        assertThat(MessageCursor.decode(window.getNextCursor()).id()).isEqualTo(10L);
+    }
+
+    @Test
+    void afterWithoutAnchorFallsBackToRepositoryFromTheStart() {
+        givenChannel(15, 5);
+        List<GlobalMessageDto> oldest = new ArrayList<>();
+        for (long id = 1; id <= 11; id++) {
+            oldest.add(message(id));
+        }
+        when(globalMessageRepository.findAfter(eq(Instant.EPOCH), eq(0L), any())).thenReturn(oldest);
+
+        var window = messageService.getGlobalMessages(request(null, ScrollDirection.AFTER, null));
+
+        verify(globalMessageRepository).findAfter(eq(Instant.EPOCH), eq(0L), any());
+        assertThat(ids(window)).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        assertThat(window.getPrevCursor()).isNull();
+    }
+
+    @Test
+    void afterCursorReturnsNewerPage() {
+        givenChannel(15, 50);
+        String cursor = MessageCursor.of(message(10)).encode();
+
+        var window = messageService.getGlobalMessages(request(cursor, ScrollDirection.AFTER, null));
+
+        assertThat(ids(window)).containsExactly(11L, 12L, 13L, 14L, 15L);
+        assertThat(MessageCursor.decode(window.getPrevCursor()).id()).isEqualTo(11L);
+        assertThat(window.getNextCursor()).isNull();
+    }
+
+    @Test
+    void atSeeksForwardIncludingTheMessageAtThatTime() {
+        givenChannel(15, 50);
+
+        var window = messageService.getGlobalMessages(request(null, null, message(5).createdAt()));
+
+        assertThat(ids(window)).containsExactly(5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L, 13L, 14L);
+        assertThat(MessageCursor.decode(window.getPrevCursor()).id()).isEqualTo(5L);
+        assertThat(MessageCursor.decode(window.getNextCursor()).id()).isEqualTo(14L);
+    }
+
+    @Test
+    void pagesJoinWithoutGapsOrDuplicates() {
+        givenChannel(25, 50);
+        List<Long> seen = new ArrayList<>();
+
+        var window = messageService.getGlobalMessages(request(null, ScrollDirection.BEFORE, null));
+        seen.addAll(0, ids(window));
+        while (window.getPrevCursor() != null) {
+            window = messageService.getGlobalMessages(request(window.getPrevCursor(), ScrollDirection.BEFORE, null));
+            seen.addAll(0, ids(window));
+        }
+
+        List<Long> expected = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            expected.add(id);
+        }
+        assertThat(seen).isEqualTo(expected);
+        assertThat(Collections.frequency(seen, 1L)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,149 @@
+package mfy.server.domain.message.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import mfy.server.domain.message.entity.ChannelSequence;
+import mfy.server.domain.message.entity.GlobalMessage;
+import mfy.server.domain.message.entity.type.MessageType;
+import mfy.server.domain.user.entity.TestUsers;
+
+/**
+ * Throughput and ack latency of per-message inserts against the write-behind
+ * writer, on scratch tables in their own schema. Only runs when pointed at a
+ * PostgreSQL database:
+ *
+ * ./gradlew test --tests '*MessageWriterBenchmark' -Dbench.jdbc-url=jdbc:postgresql://localhost/mfy
+ * -Dbench.username=... -Dbench.password=...
+ *
+ * Optional: bench.senders (32), bench.messages (200 per sender), bench.batch-size (200).
+ */
+@EnabledIfSystemProperty(named = "bench.jdbc-url", matches = ".+")
+class MessageWriterBenchmark {
+
+    private static final String SCHEMA = "mfy_writer_bench";
+
+    private static final int SENDERS = Integer.getInteger("bench.senders", 32);
+    private static final int MESSAGES = Integer.getInteger("bench.messages", 200);
+    private static final int BATCH_SIZE = Integer.getInteger("bench.batch-size", 200);
+
+    private static DriverManagerDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void createTables() {
+        var admin = new JdbcTemplate(new DriverManagerDataSource(System.getProperty("bench.jdbc-url"),
+                System.getProperty("bench.username"), System.getProperty("bench.password")));
+        admin.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        admin.execute("CREATE SCHEMA " + SCHEMA);
+
+        dataSource = new DriverManagerDataSource(System.getProperty("bench.jdbc-url"),
+                System.getProperty("bench.username"), System.getProperty("bench.password"));
+        dataSource.setSchema(SCHEMA);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE globalmessages (
+                    id BIGSERIAL PRIMARY KEY, seq BIGINT, content TEXT, created_at TIMESTAMPTZ,
+                    updated_at TIMESTAMPTZ, is_deleted BOOLEAN, attachments JSONB, sender_id BIGINT)
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE channelsequences (
+                    type VARCHAR(16), channel_id BIGINT, seq BIGINT, PRIMARY KEY (type, channel_id))
+                """);
+    }
+
+    @AfterAll
+    static void dropTables() {
+        if (jdbcTemplate != null) {
+            jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    private static GlobalMessage message(int i) {
+        return new GlobalMessage(TestUsers.user(1L), "bench " + i, Collections.emptyList());
+    }
+
+    @Test
+    void compareInsertPerMessageWithWriteBehind() throws Exception {
+        var transactionManager = new DataSourceTransactionManager(dataSource);
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+        var channelSequencer = new ChannelSequencer(jdbcTemplate);
+
+        run("insert per message", i -> transactionTemplate.executeWithoutResult(status -> {
+            GlobalMessage message = message(i);
+            message.prePersist();
+            channelSequencer.assign(MessageType.GLOBAL, ChannelSequence.SHARED_CHANNEL, List.of(message));
+            jdbcTemplate.update("""
+                    INSERT INTO globalmessages (seq, content, created_at, updated_at, is_deleted, attachments, sender_id)
+                    VALUES (?, ?, ?, ?, ?, '[]'::jsonb, ?)
+                    """, message.getSeq(), message.getContent(), Timestamp.from(message.getCreatedAt()),
+                    Timestamp.from(message.getUpdatedAt()), message.getIsDeleted(), message.getSenderId());
+        }));
+
+        var writer = new MessageWriter(jdbcTemplate, transactionManager, new ObjectMapper(), channelSequencer);
+        ReflectionTestUtils.setField(writer, "isEnabled", true);
+        ReflectionTestUtils.setField(writer, "queueCapacity", SENDERS * MESSAGES);
+        ReflectionTestUtils.setField(writer, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 5L);
+        ReflectionTestUtils.setField(writer, "ackTimeoutMs", 30000L);
+        writer.start();
+        try {
+            run("write-behind", i -> writer.persist(message(i), saved -> {
+            }));
+        } finally {
+            writer.stop();
+        }
+    }
+
+    private void run(String name, Consumer<Integer> send) throws Exception {
+        ExecutorService senders = Executors.newFixedThreadPool(SENDERS);
+        List<Future<long[]>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int s = 0; s < SENDERS; s++) {
+            int sender = s;
+            results.add(senders.submit(() -> {
+                long[] latencies = new long[MESSAGES];
+                for (int m = 0; m < MESSAGES; m++) {
+                    long sent = System.nanoTime();
+                    send.accept(sender * MESSAGES + m);
+                    latencies[m] = System.nanoTime() - sent;
+                }
+                return latencies;
+            }));
+        }
+        long[] latencies = new long[SENDERS * MESSAGES];
+        for (int s = 0; s < SENDERS; s++) {
+            System.arraycopy(results.get(s).get(), 0, latencies, s * MESSAGES, MESSAGES);
+        }
+        long elapsed = System.nanoTime() - start;
+        senders.shutdown();
+        Arrays.sort(latencies);
+
+        System.out.printf("%-20s %8.0f msg/s  p50 %6d us  p99 %6d us  (%d senders x %d, %s)%n", name,
+                latencies.length / (elapsed / 1e9),
+                TimeUnit.NANOSECONDS.toMicros(latencies[latencies.length / 2]),
+                TimeUnit.NANOSECONDS.toMicros(latencies[(int) (latencies.length * 0.99)]),
+                SENDERS, MESSAGES, Instant.now());
+    }
+}
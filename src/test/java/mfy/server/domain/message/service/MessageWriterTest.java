@@ -0,0 +1,182 @@
+package mfy.server.domain.message.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import mfy.server.domain.message.entity.GlobalMessage;
+import mfy.server.domain.user.entity.TestUsers;
+import mfy.server.global.exception.BusinessException;
+
+class MessageWriterTest {
+
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+    private final List<GlobalMessage> saved = new CopyOnWriteArrayList<>();
+    private final ExecutorService senders = Executors.newFixedThreadPool(20);
+    private MessageWriter writer;
+
+    // Captures the multi-row inserts, and can hold the writer inside a flush
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+
+        private final List<Integer> insertedRows = new CopyOnWriteArrayList<>();
+        private final List<List<Object>> insertedIds = new CopyOnWriteArrayList<>();
+        private volatile CountDownLatch inFlush = new CountDownLatch(0);
+        private volatile CountDownLatch release = new CountDownLatch(0);
+        private long nextId = 1;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            int count = (Integer) args[0];
+            List<Long> ids = LongStream.range(nextId, nextId + count).boxed().toList();
+            nextId += count;
+            return (List<T>) ids;
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            inFlush.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // 7 base columns and sender_id per row, id first
+            int rows = args.length / 8;
+            List<Object> ids = new ArrayList<>();
+            for (int i = 0; i < rows; i++) {
+                ids.add(args[i * 8]);
+            }
+            insertedRows.add(rows);
+            insertedIds.add(ids);
+            return rows;
+        }
+
+        void hold() {
+            inFlush = new CountDownLatch(1);
+            release = new CountDownLatch(1);
+        }
+    }
+
+    private void start(int batchSize, long flushIntervalMs, long ackTimeoutMs) {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        writer = new MessageWriter(jdbcTemplate, transactionManager, new ObjectMapper(),
+                mock(ChannelSequencer.class));
+        ReflectionTestUtils.setField(writer, "isEnabled", true);
+        ReflectionTestUtils.setField(writer, "queueCapacity", 1000);
+        ReflectionTestUtils.setField(writer, "batchSize", batchSize);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", flushIntervalMs);
+        ReflectionTestUtils.setField(writer, "ackTimeoutMs", ackTimeoutMs);
+        writer.start();
+    }
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        jdbcTemplate.release.countDown();
+        writer.stop();
+        senders.shutdownNow();
+    }
+
+    private static GlobalMessage message(String content) {
+        return new GlobalMessage(TestUsers.user(7L), content, Collections.emptyList());
+    }
+
+    private CompletableFuture<GlobalMessage> persistAsync(GlobalMessage message) {
+        return CompletableFuture.supplyAsync(() -> writer.persist(message, saved::add), senders);
+    }
+
+    @Test
+    void concurrentSendsShareOneMultiRowInsert() {
+        start(50, 200, 5000);
+
+        List<CompletableFuture<GlobalMessage>> sends = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            sends.add(persistAsync(message("m" + i)));
+        }
+        sends.forEach(CompletableFuture::join);
+
+        assertThat(jdbcTemplate.insertedRows.stream().mapToInt(Integer::intValue).sum()).isEqualTo(20);
+        assertThat(jdbcTemplate.insertedRows.size()).isLessThan(20);
+        assertThat(saved).hasSize(20);
+        assertThat(sends).allSatisfy(send -> assertThat(send.join().getId()).isNotNull());
+    }
+
+    @Test
+    void batchSizeCapsRowsPerInsert() {
+        start(4, 200, 5000);
+
+        List<CompletableFuture<GlobalMessage>> sends = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            sends.add(persistAsync(message("m" + i)));
+        }
+        sends.forEach(CompletableFuture::join);
+
+        assertThat(jdbcTemplate.insertedRows).allSatisfy(rows -> assertThat(rows).isLessThanOrEqualTo(4));
+        assertThat(jdbcTemplate.insertedRows.stream().mapToInt(Integer::intValue).sum()).isEqualTo(10);
+    }
+
+    @Test
+    void timedOutQueuedMessageIsWithdrawn() throws InterruptedException {
+        start(1, 0, 200);
+        jdbcTemplate.hold();
+
+        CompletableFuture<GlobalMessage> first = persistAsync(message("first"));
+        assertThat(jdbcTemplate.inFlush.await(5, TimeUnit.SECONDS)).isTrue();
+
+        GlobalMessage second = message("second");
+        assertThatThrownBy(() -> writer.persist(second, saved::add))
+                .isInstanceOfSatisfying(BusinessException.class,
+                        e -> assertThat(e.getCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value()));
+
+        jdbcTemplate.release.countDown();
+        first.join();
+        GlobalMessage third = writer.persist(message("third"), saved::add);
+
+        // The withdrawn message never reaches the table, so a retry cannot duplicate it
+        assertThat(second.getId()).isNull();
+        assertThat(saved).extracting(GlobalMessage::getContent).containsExactly("first", "third");
+        assertThat(jdbcTemplate.insertedIds.stream().flatMap(List::stream))
+                .containsExactly(first.join().getId(), third.getId());
+    }
+
+    @Test
+    void timedOutInFlightMessageWaitsForItsFlush() throws InterruptedException {
+        start(1, 0, 100);
+        jdbcTemplate.hold();
+
+        CompletableFuture<GlobalMessage> first = persistAsync(message("first"));
+        assertThat(jdbcTemplate.inFlush.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(300);
+        assertThat(first).isNotDone();
+
+        jdbcTemplate.release.countDown();
+
+        // Already taken by the writer, so the sender gets the stored message instead of an error
+        assertThat(first.join().getId()).isEqualTo(1L);
+        assertThat(saved).hasSize(1);
+    }
+}
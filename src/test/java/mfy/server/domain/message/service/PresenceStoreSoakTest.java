@@ -0,0 +1,106 @@
+package mfy.server.domain.message.service;
+
+import static mfy.server.domain.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Churn of distinct users through the presence store with the one-minute
+ * eviction sweep in between, checking that entries and retained heap stay
+ * bounded by the online users plus max-offline. Only runs when asked for:
+ *
+ * ./gradlew test --tests '*PresenceStoreSoakTest' -Dbench.presence-soak=true
+ *
+ * Optional: bench.cycles (5000000), bench.evict-every (100000 cycles),
+ * bench.online (1000 users kept online), bench.max-offline (10000).
+ */
+@EnabledIfSystemProperty(named = "bench.presence-soak", matches = "true")
+class PresenceStoreSoakTest {
+
+    private static final int THREADS = 8;
+
+    private static final long CYCLES = Long.getLong("bench.cycles", 5_000_000L);
+    private static final long EVICT_EVERY = Long.getLong("bench.evict-every", 100_000L);
+    private static final int ONLINE = Integer.getInteger("bench.online", 1000);
+    private static final int MAX_OFFLINE = Integer.getInteger("bench.max-offline", 10_000);
+
+    // Slack for the retained heap between the first and the last sweep
+    private static final long HEAP_SLACK_BYTES = 32L * 1024 * 1024;
+
+    @Test
+    void churnStaysBounded() throws Exception {
+        PresenceStore store = new PresenceStore();
+        ReflectionTestUtils.setField(store, "offlineRetentionMinutes", 30L);
+        ReflectionTestUtils.setField(store, "maxOffline", MAX_OFFLINE);
+        Map<?, ?> entries = (Map<?, ?>) ReflectionTestUtils.getField(store, "entries");
+
+        // Users that stay online for the whole run, the sweeps must keep them
+        for (long id = 1; id <= ONLINE; id++) {
+            store.connect(user(id), "online-" + id);
+        }
+
+        ExecutorService sessions = Executors.newFixedThreadPool(THREADS);
+        AtomicLong nextUser = new AtomicLong(ONLINE);
+        long baseline = -1;
+        long maxEntries = 0;
+        try {
+            for (long done = 0; done < CYCLES; done += EVICT_EVERY) {
+                long batch = Math.min(EVICT_EVERY, CYCLES - done);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    String sessionId = "churn-" + t;
+                    long cycles = batch / THREADS + (t < batch % THREADS ? 1 : 0);
+                    futures.add(sessions.submit(() -> {
+                        for (long i = 0; i < cycles; i++) {
+                            long userId = nextUser.incrementAndGet();
+                            store.connect(user(userId), sessionId);
+                            store.disconnect(userId, sessionId);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+
+                store.evict();
+                maxEntries = Math.max(maxEntries, entries.size());
+                assertThat(entries.size()).isLessThanOrEqualTo(ONLINE + MAX_OFFLINE);
+                assertThat(store.getOnlineUsers()).hasSize(ONLINE);
+                if (baseline < 0) {
+                    baseline = usedHeap();
+                }
+            }
+        } finally {
+            sessions.shutdownNow();
+        }
+
+        long retained = usedHeap();
+        System.out.printf("presence soak: %d cycles, max %d entries, heap %d KB after the first sweep, %d KB at the end%n",
+                CYCLES, maxEntries, baseline / 1024, retained / 1024);
+        assertThat(retained).isLessThan(baseline + HEAP_SLACK_BYTES);
+
+        ReflectionTestUtils.setField(store, "offlineRetentionMinutes", 0L);
+        store.evict();
+        assertThat(entries.size()).isEqualTo(ONLINE);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
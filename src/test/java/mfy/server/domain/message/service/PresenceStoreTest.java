@@ -0,0 +1,136 @@
+package mfy.server.domain.message.service;
+
+import static mfy.server.domain.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import mfy.server.domain.user.entity.User;
+
+class PresenceStoreTest {
+
+    private static final int THREADS = 8;
+
+    private final ExecutorService sessions = Executors.newFixedThreadPool(THREADS);
+    private PresenceStore store;
+
+    @BeforeEach
+    void init() {
+        store = new PresenceStore();
+        ReflectionTestUtils.setField(store, "offlineRetentionMinutes", 30L);
+        ReflectionTestUtils.setField(store, "maxOffline", 100);
+    }
+
+    @AfterEach
+    void stop() {
+        sessions.shutdownNow();
+    }
+
+    private int entries() {
+        return ((Map<?, ?>) ReflectionTestUtils.getField(store, "entries")).size();
+    }
+
+    private void runSessions(SessionTask task) throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int session = i;
+            futures.add(sessions.submit(() -> {
+                task.run("s" + session);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private interface SessionTask {
+        void run(String sessionId) throws Exception;
+    }
+
+    @Test
+    void concurrentSessionsOfOneUserTransitionOnce() throws Exception {
+        User user = user(1L);
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        AtomicInteger online = new AtomicInteger();
+        AtomicInteger offline = new AtomicInteger();
+
+        for (int round = 0; round < 200; round++) {
+            runSessions(sessionId -> {
+                barrier.await();
+                online.addAndGet(store.connect(user, sessionId) ? 1 : 0);
+            });
+            assertThat(store.get(1L).sessionIds()).hasSize(THREADS);
+            runSessions(sessionId -> {
+                barrier.await();
+                offline.addAndGet(store.disconnect(1L, sessionId) ? 1 : 0);
+            });
+
+            assertThat(online).hasValue(round + 1);
+            assertThat(offline).hasValue(round + 1);
+            assertThat(store.isOnline(1L)).isFalse();
+        }
+    }
+
+    @Test
+    void interleavedConnectsAndDisconnectsStayConsistent() throws Exception {
+        User user = user(1L);
+        AtomicInteger online = new AtomicInteger();
+        AtomicInteger offline = new AtomicInteger();
+
+        runSessions(sessionId -> {
+            for (int i = 0; i < 10_000; i++) {
+                online.addAndGet(store.connect(user, sessionId) ? 1 : 0);
+                // Another tab of the same session id reconnecting is not a transition
+                assertThat(store.connect(user, sessionId)).isFalse();
+                assertThat(store.isOnline(1L)).isTrue();
+                offline.addAndGet(store.disconnect(1L, sessionId) ? 1 : 0);
+                assertThat(store.disconnect(1L, sessionId)).isFalse();
+            }
+        });
+
+        // Every online transition was matched by exactly one offline transition
+        assertThat(online.get()).isPositive().isEqualTo(offline.get());
+        assertThat(store.isOnline(1L)).isFalse();
+        assertThat(store.get(1L).sessionIds()).isEmpty();
+        assertThat(store.getOnlineUsers()).isEmpty();
+    }
+
+    @Test
+    void evictBoundsOfflineEntries() throws Exception {
+        AtomicInteger nextUser = new AtomicInteger();
+        runSessions(sessionId -> {
+            for (int i = 0; i < 1000; i++) {
+                long userId = nextUser.incrementAndGet();
+                store.connect(user(userId), sessionId);
+                if (userId % 10 != 0) {
+                    store.disconnect(userId, sessionId);
+                }
+            }
+        });
+        assertThat(entries()).isEqualTo(THREADS * 1000);
+
+        store.evict();
+
+        // Every tenth user is still online and kept, the offline ones are capped
+        assertThat(store.getOnlineUsers()).hasSize(THREADS * 100);
+        assertThat(entries()).isEqualTo(THREADS * 100 + 100);
+
+        ReflectionTestUtils.setField(store, "offlineRetentionMinutes", 0L);
+        store.evict();
+        assertThat(entries()).isEqualTo(THREADS * 100);
+    }
+}
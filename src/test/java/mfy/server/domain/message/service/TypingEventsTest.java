@@ -0,0 +1,151 @@
+package mfy.server.domain.message.service;
+
+import static mfy.server.domain.user.entity.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import mfy.server.domain.message.dto.MessageResponseDto.TypingDto;
+import mfy.server.domain.message.service.type.OnlineUser;
+import mfy.server.domain.project.service.TranslatorService;
+import mfy.server.domain.user.entity.User;
+import mfy.server.global.exception.BusinessException;
+import mfy.server.global.websocket.WebSocketInterceptor;
+
+class TypingEventsTest {
+
+    private final MessageManager messageManager = mock(MessageManager.class);
+    private final TranslatorService translatorService = mock(TranslatorService.class);
+    private final ClusterPresence clusterPresence = mock(ClusterPresence.class);
+    private TypingEvents typingEvents;
+
+    @BeforeEach
+    void init() {
+        when(translatorService.isMember(anyLong(), anyLong())).thenReturn(true);
+        start(50, 5);
+    }
+
+    private void start(long windowMs, int maxPerSecond) {
+        typingEvents = new TypingEvents(messageManager, translatorService, clusterPresence);
+        ReflectionTestUtils.setField(typingEvents, "windowMs", windowMs);
+        ReflectionTestUtils.setField(typingEvents, "ttlMs", 5000L);
+        ReflectionTestUtils.setField(typingEvents, "maxPerSecond", maxPerSecond);
+        ReflectionTestUtils.setField(typingEvents, "maxTypers", 1000);
+        typingEvents.init();
+    }
+
+    private static String topic(long projectId) {
+        return WebSocketInterceptor.PROJECT_TOPIC + projectId + MessageManager.TYPING_SUFFIX;
+    }
+
+    @Test
+    void repeatedStartsInsideTheWindowAreCoalesced() throws InterruptedException {
+        User user = user(1L);
+
+        for (int i = 0; i < 10; i++) {
+            typingEvents.typeInProject(user, 7L, true);
+        }
+        verify(messageManager, times(1)).sendEphemeral(eq(topic(7L)), any());
+
+        Thread.sleep(80);
+        typingEvents.typeInProject(user, 7L, true);
+        verify(messageManager, times(2)).sendEphemeral(eq(topic(7L)), any());
+    }
+
+    @Test
+    void eventsCarryAnExpiry() {
+        typingEvents.typeInProject(user(1L), 7L, true);
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messageManager).sendEphemeral(eq(topic(7L)), payload.capture());
+        TypingDto dto = (TypingDto) payload.getValue();
+        assertThat(dto.userId()).isEqualTo(1L);
+        assertThat(dto.isTyping()).isTrue();
+        assertThat(dto.expiresAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    void stopIsOnlyRelayedForAShownIndicator() {
+        User user = user(1L);
+
+        typingEvents.typeInProject(user, 7L, false);
+        verify(messageManager, never()).sendEphemeral(anyString(), any());
+
+        typingEvents.typeInProject(user, 7L, true);
+        typingEvents.typeInProject(user, 7L, false);
+        typingEvents.typeInProject(user, 7L, false);
+        verify(messageManager, times(2)).sendEphemeral(eq(topic(7L)), any());
+    }
+
+    @Test
+    void eachUserIsLimitedAcrossChannels() throws InterruptedException {
+        start(60_000, 3);
+        User user = user(1L);
+
+        for (long projectId = 1; projectId <= 10; projectId++) {
+            typingEvents.typeInProject(user, projectId, true);
+        }
+        // Another user keeps their own budget
+        typingEvents.typeInProject(user(2L), 1L, true);
+        verify(messageManager, times(4)).sendEphemeral(anyString(), any());
+
+        Thread.sleep(1100);
+        typingEvents.typeInProject(user, 11L, true);
+        verify(messageManager, times(5)).sendEphemeral(anyString(), any());
+    }
+
+    @Test
+    void limitedStartIsRetriedWithinTheWindow() throws InterruptedException {
+        start(60_000, 1);
+        User user = user(1L);
+
+        typingEvents.typeInProject(user, 1L, true);
+        typingEvents.typeInProject(user, 2L, true);
+        verify(messageManager, times(1)).sendEphemeral(anyString(), any());
+
+        // The limited start was not recorded as shown, so it goes out once the budget is back
+        Thread.sleep(1100);
+        typingEvents.typeInProject(user, 2L, true);
+        verify(messageManager, times(1)).sendEphemeral(eq(topic(2L)), any());
+    }
+
+    @Test
+    void nonMembersAreRejected() {
+        when(translatorService.isMember(7L, 1L)).thenReturn(false);
+
+        assertThatThrownBy(() -> typingEvents.typeInProject(user(1L), 7L, true))
+                .isInstanceOfSatisfying(BusinessException.class,
+                        e -> assertThat(e.getCode()).isEqualTo(HttpStatus.FORBIDDEN.value()));
+        verify(messageManager, never()).sendEphemeral(anyString(), any());
+    }
+
+    @Test
+    void privateTypingNeedsAnOnlineRecipient() {
+        User user = user(1L);
+
+        typingEvents.typeToUser(user, 2L, true);
+        verify(messageManager, never()).sendEphemeralToUser(anyString(), anyString(), any());
+
+        when(clusterPresence.get(2L)).thenReturn(new OnlineUser(2L, "two", "Two", null, "two@mfy.test", true,
+                Instant.now()));
+        typingEvents.typeToUser(user, 2L, true);
+        typingEvents.typeToUser(user, 2L, true);
+        verify(messageManager, times(1)).sendEphemeralToUser(eq("two@mfy.test"), eq("/queue/typing"), any());
+    }
+}
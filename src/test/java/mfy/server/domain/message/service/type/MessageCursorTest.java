@@ -0,0 +1,56 @@
+package mfy.server.domain.message.service.type;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import mfy.server.global.exception.BusinessException;
+
+class MessageCursorTest {
+
+    @Test
+    void encodeRoundTrips() {
+        MessageCursor cursor = new MessageCursor(Instant.parse("2025-03-01T10:15:30.123456Z"), 42L);
+
+        assertThat(MessageCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void encodedFormIsUrlSafe() {
+        String encoded = new MessageCursor(Instant.parse("2025-03-01T10:15:30Z"), 9_007_199_254_740_993L).encode();
+
+        assertThat(encoded).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void rejectsTamperedCursor() {
+        String encoded = new MessageCursor(Instant.parse("2025-03-01T10:15:30Z"), 42L).encode();
+        String tampered = "x" + encoded.substring(1);
+
+        assertThatThrownBy(() -> MessageCursor.decode(tampered))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code").isEqualTo(400);
+    }
+
+    @Test
+    void rejectsCursorWithoutId() {
+        String raw = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2025-03-01T10:15:30Z|".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> MessageCursor.decode(raw))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code").isEqualTo(400);
+    }
+
+    @Test
+    void rejectsGarbage() {
+        assertThatThrownBy(() -> MessageCursor.decode("not a cursor!"))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code").isEqualTo(400);
+    }
+}
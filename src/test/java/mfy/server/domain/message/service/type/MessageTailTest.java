@@ -0,0 +1,123 @@
+package mfy.server.domain.message.service.type;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import mfy.server.domain.message.dto.MessageResponseDto.GlobalMessageDto;
+import mfy.server.domain.message.dto.MessageResponseDto.IMessageKey;
+
+class MessageTailTest {
+
+    private static final Instant T0 = Instant.parse("2025-03-01T00:00:00Z");
+
+    private static GlobalMessageDto message(long id) {
+        return new GlobalMessageDto(id, "m" + id, T0.plusSeconds(id), null, false, List.of(), 1L, id);
+    }
+
+    // Newest first, the way findLatest returns them
+    private static List<GlobalMessageDto> latest(long from, long to) {
+        List<GlobalMessageDto> rows = new ArrayList<>();
+        for (long id = to; id >= from; id--) {
+            rows.add(message(id));
+        }
+        return rows;
+    }
+
+    private static List<Long> ids(List<? extends IMessageKey> rows) {
+        return rows.stream().map(IMessageKey::id).toList();
+    }
+
+    @Test
+    void unloadedTailCannotAnswer() {
+        MessageTail<GlobalMessageDto> tail = new MessageTail<>(5);
+        tail.add(message(1));
+
+        assertThat(tail.read(null, false, 1)).isNull();
+        assertThat(tail.readSince(0, 10)).isNull();
+    }
+
+    @Test
+    void ringDropsOldestBeyondCapacity() {
+        MessageTail<GlobalMessageDto> tail = new MessageTail<>(3);
+        tail.load(latest(1, 2), true);
+        tail.add(message(3));
+        tail.add(message(4));
+        tail.add(message(5));
+
+        assertThat(ids(tail.read(null, false, 3))).containsExactly(5L, 4L, 3L);
+        // Message 2 was dropped, so the tail no longer reaches the start of the channel
+        assertThat(tail.read(null, false, 4)).isNull();
+    }
+
+    @Test
+    void keepsOrderAndReplacesSameId() {
+        MessageTail<GlobalMessageDto> tail = new MessageTail<>(5);
+        tail.load(latest(1, 2), true);
+        tail.add(message(4));
+        tail.add(message(3));
+        var edited = new GlobalMessageDto(4L, "edited", T0.plusSeconds(4), T0.plusSeconds(9), false, List.of(), 1L,
+                4L);
+        tail.add(edited);
+
+        List<GlobalMessageDto> rows = tail.read(null, false, 5);
+        assertThat(ids(rows)).containsExactly(4L, 3L, 2L, 1L);
+        assertThat(rows.get(0).content()).isEqualTo("edited");
+    }
+
+    @Test
+    void keysetReadsInsideTheBuffer() {
+        MessageTail<GlobalMessageDto> tail = new MessageTail<>(10);
+        tail.load(latest(11, 20), false);
+
+        assertThat(ids(tail.read(MessageCursor.of(message(15)), false, 3))).containsExactly(14L, 13L, 12L);
+        assertThat(ids(tail.read(MessageCursor.of(message(15)), true, 3))).containsExactly(16L, 17L, 18L);
+        // Older than the buffer and the channel has more history
+        assertThat(tail.read(MessageCursor.of(message(12)), false, 3)).isNull();
+        assertThat(tail.read(MessageCursor.of(message(5)), true, 3)).isNull();
+    }
+
+    @Test
+    void readSinceReturnsSequenceOrder() {
+        MessageTail<GlobalMessageDto> tail = new MessageTail<>(10);
+        tail.load(latest(11, 20), false);
+
+        assertThat(ids(tail.readSince(15, 10))).containsExactly(16L, 17L, 18L, 19L, 20L);
+        assertThat(ids(tail.readSince(15, 2))).containsExactly(16L, 17L);
+        assertThat(tail.readSince(20, 10)).isEmpty();
+    }
+
+    @Test
+    void readSinceFallsBackWhenBufferStartsAfterTheGap() {
+        MessageTail<GlobalMessageDto> tail = new MessageTail<>(10);
+        tail.load(latest(11, 20), false);
+
+        assertThat(tail.readSince(5, 10)).isNull();
+    }
+
+    @Test
+    void readSinceFallsBackOnSequenceGap() {
+        MessageTail<GlobalMessageDto> tail = new MessageTail<>(10);
+        tail.load(latest(11, 15), false);
+        // 17 committed first, 16 is still on its way to the tail
+        tail.add(message(17));
+
+        assertThat(tail.readSince(15, 10)).isNull();
+        assertThat(ids(tail.readSince(13, 2))).containsExactly(14L, 15L);
+
+        tail.add(message(16));
+        assertThat(ids(tail.readSince(15, 10))).containsExactly(16L, 17L);
+    }
+
+    @Test
+    void readSinceCoversCompleteChannel() {
+        MessageTail<GlobalMessageDto> tail = new MessageTail<>(10);
+        tail.load(latest(1, 3), true);
+
+        assertThat(ids(tail.readSince(0, 10))).containsExactly(1L, 2L, 3L);
+    }
+}
@@ -0,0 +1,19 @@
+package mfy.server.domain.user.entity;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Users for unit tests that only need an id, which the database assigns
+ * outside of tests.
+ */
+public final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    public static User user(long id) {
+        User user = new User();
+        ReflectionTestUtils.setField(user, "id", id);
+        return user;
+    }
+}
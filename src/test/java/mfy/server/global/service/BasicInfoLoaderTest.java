@@ -0,0 +1,128 @@
+package mfy.server.global.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import mfy.server.domain.project.dto.ProjectResponseDto.ProjectBasicDto;
+import mfy.server.domain.user.dto.UserResponseDto.UserBasicDto;
+
+class BasicInfoLoaderTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    // Ids of each query, in order
+    private final List<Set<Long>> queries = new ArrayList<>();
+    private BasicInfoLoader loader;
+
+    // Answers every id except 404 with a row
+    @BeforeEach
+    void init() {
+        doAnswer(invocation -> {
+            Long[] ids = invocation.getArgument(2);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            queries.add(Set.of(ids));
+            for (Long id : ids) {
+                if (id != 404L) {
+                    handler.processRow(row(id));
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any());
+
+        loader = new BasicInfoLoader(jdbcTemplate);
+        ReflectionTestUtils.setField(loader, "cacheSize", 100);
+        ReflectionTestUtils.setField(loader, "cacheMinutes", 30L);
+        loader.init();
+    }
+
+    private static ResultSet row(long id) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getString("nickname")).thenReturn("user" + id);
+        when(rs.getString("title")).thenReturn("project" + id);
+        when(rs.getTimestamp("joined_at")).thenReturn(Timestamp.from(Instant.EPOCH));
+        return rs;
+    }
+
+    @Test
+    void missesAreFetchedInOneQuery() {
+        List<UserBasicDto> users = loader.getUsers(List.of(1L, 2L, 3L));
+
+        assertThat(users).extracting(UserBasicDto::id).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(queries).containsExactly(Set.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void onlyMissingIdsAreQueried() {
+        loader.getUsers(List.of(1L, 2L));
+        loader.getUsers(List.of(1L, 2L, 3L, 4L));
+        loader.getUser(2L);
+
+        assertThat(queries).containsExactly(Set.of(1L, 2L), Set.of(3L, 4L));
+    }
+
+    @Test
+    void unknownIdsAreLeftOut() {
+        assertThat(loader.getUsers(List.of(1L, 404L))).extracting(UserBasicDto::id).containsExactly(1L);
+        assertThat(loader.getUser(404L)).isNull();
+    }
+
+    @Test
+    void emptyRequestSkipsTheDatabase() {
+        assertThat(loader.getUsers(List.of())).isEmpty();
+        assertThat(loader.getProjects(List.of())).isEmpty();
+        assertThat(queries).isEmpty();
+    }
+
+    @Test
+    void evictionReloadsOnlyTheEvictedEntry() {
+        loader.getUsers(List.of(1L, 2L));
+        loader.getProjects(List.of(7L));
+
+        loader.evictUser(1L);
+        loader.evictProject(7L);
+        loader.getUsers(List.of(1L, 2L));
+        ProjectBasicDto project = loader.getProject(7L);
+
+        assertThat(project.title()).isEqualTo("project7");
+        assertThat(queries).containsExactly(Set.of(1L, 2L), Set.of(7L), Set.of(1L), Set.of(7L));
+    }
+
+    @Test
+    void sizeBoundEvictsEntries() {
+        ReflectionTestUtils.setField(loader, "cacheSize", 2);
+        loader.init();
+
+        Long[] ids = { 1L, 2L, 3L, 4L, 5L, 6L };
+        for (Long id : ids) {
+            loader.getUser(id);
+        }
+        Cache<?, ?> users = (Cache<?, ?>) ReflectionTestUtils.getField(loader, "users");
+        users.cleanUp();
+        queries.clear();
+        loader.getUsers(Arrays.asList(ids));
+
+        assertThat(queries).hasSize(1);
+        assertThat(queries.get(0)).hasSizeGreaterThanOrEqualTo(4);
+    }
+}
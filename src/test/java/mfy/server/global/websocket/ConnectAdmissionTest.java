@@ -0,0 +1,113 @@
+package mfy.server.global.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import mfy.server.global.exception.BusinessException;
+
+class ConnectAdmissionTest {
+
+    private static ConnectAdmission admission(double connectsPerSecond, double burst, int maxConcurrent,
+            long waitMs) {
+        ConnectAdmission admission = new ConnectAdmission();
+        ReflectionTestUtils.setField(admission, "connectsPerSecond", connectsPerSecond);
+        ReflectionTestUtils.setField(admission, "burst", burst);
+        ReflectionTestUtils.setField(admission, "maxConcurrent", maxConcurrent);
+        ReflectionTestUtils.setField(admission, "waitMs", waitMs);
+        ReflectionTestUtils.setField(admission, "reconnectMinMs", 1000L);
+        ReflectionTestUtils.setField(admission, "reconnectMaxMs", 5000L);
+        admission.init();
+        return admission;
+    }
+
+    private static void assertRejected(ConnectAdmission admission, Runnable connect) {
+        assertThatThrownBy(() -> admission.admit(connect))
+                .isInstanceOfSatisfying(BusinessException.class, e -> {
+                    assertThat(e.getCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+                    assertThat((Long) e.getData()).isBetween(1000L, 5000L);
+                });
+    }
+
+    @Test
+    void burstIsAdmittedThenRateLimited() {
+        ConnectAdmission admission = admission(0.001, 3, 16, 100);
+        AtomicInteger connected = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            admission.admit(connected::incrementAndGet);
+        }
+        assertRejected(admission, connected::incrementAndGet);
+        assertThat(connected).hasValue(3);
+    }
+
+    @Test
+    void tokensRefillOverTime() throws InterruptedException {
+        ConnectAdmission admission = admission(50, 1, 16, 100);
+        AtomicInteger connected = new AtomicInteger();
+
+        admission.admit(connected::incrementAndGet);
+        assertRejected(admission, connected::incrementAndGet);
+        Thread.sleep(100);
+        admission.admit(connected::incrementAndGet);
+
+        assertThat(connected).hasValue(2);
+    }
+
+    @Test
+    void concurrentConnectsAreCappedBySemaphore() throws Exception {
+        ConnectAdmission admission = admission(1000, 1000, 1, 50);
+        CountDownLatch inConnect = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> admission.admit(() -> {
+            inConnect.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(inConnect.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The only permit is held, the second connect gives up after waitMs
+        assertRejected(admission, () -> {
+        });
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        AtomicInteger connected = new AtomicInteger();
+        admission.admit(connected::incrementAndGet);
+        assertThat(connected).hasValue(1);
+    }
+
+    @Test
+    void permitIsReleasedWhenConnectFails() {
+        ConnectAdmission admission = admission(1000, 1000, 1, 50);
+
+        assertThatThrownBy(() -> admission.admit(() -> {
+            throw new IllegalStateException("auth failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        AtomicInteger connected = new AtomicInteger();
+        admission.admit(connected::incrementAndGet);
+        assertThat(connected).hasValue(1);
+    }
+
+    @Test
+    void reconnectDelayStaysInBounds() {
+        ConnectAdmission admission = admission(1, 1, 1, 0);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(admission.getReconnectDelay()).isBetween(1000L, 5000L);
+        }
+    }
+}